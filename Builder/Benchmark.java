@@ -0,0 +1,49 @@
+package Builder;
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+import Builder.model.CarBuilder;
+import Builder.model.CarSchemaBuilder;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        Director director = new Director();
+        measure("CarBuilder.build", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(new CarBuilder()
+                        .id(i)
+                        .brand("Bugatti")
+                        .model("Chiron")
+                        .color("Blue")
+                        .height(115)
+                        .engine("8L")
+                        .nbrOfDoors(2)
+                        .build()
+                        .hashCode());
+            }
+        });
+        measure("Director.buildLambo CarBuilder.build", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                CarBuilder builder = new CarBuilder();
+                director.buildLambo(builder);
+                consume(builder.build().hashCode());
+            }
+        });
+        measure("CarSchemaBuilder.build", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(new CarSchemaBuilder()
+                        .id(i)
+                        .brand("Lamborghini")
+                        .model("Aventador")
+                        .color("Yellow")
+                        .height(120)
+                        .build()
+                        .hashCode());
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package benchmark;
+
+// shared driver for the Benchmark main of every pattern package, compile it first and put it on the classpath:
+// javac -d out benchmark/Harness.java && javac -cp out -d out vansh-public/observer/*.java && java -cp out Benchmark
+public final class Harness {
+
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    private static long sink;
+
+    private Harness() {
+    }
+
+    // benchmarks feed their results in here so the JIT cannot drop the measured work as dead code
+    public static void consume(long value) {
+        sink += value;
+    }
+
+    // each round runs the body once, the body performs operations calls of the measured operation
+    public static void measure(String name, int operations, Runnable body) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            body.run();
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            body.run();
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.printf("%-45s %10.1f ns/op (best %.1f ns/op)%n", name,
+                (double) total / MEASURED_ROUNDS / operations, (double) best / operations);
+    }
+}
@@ -0,0 +1,187 @@
+package chain_of_responsibilty;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class AsyncPaymentRouter implements AutoCloseable {
+
+    private final PaymentRouter router;
+    private final PaymentHandler fallback;
+    private final int maxInFlight;
+    private final long timeoutMillis;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService timer;
+    private final Map<PaymentHandler, Window> windows = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public AsyncPaymentRouter(PaymentHandler head, int maxInFlight, long timeoutMillis) {
+        this(head, new UniversalPaymentHandler(), maxInFlight, timeoutMillis, Executors.newCachedThreadPool());
+    }
+
+    public AsyncPaymentRouter(PaymentHandler head, PaymentHandler fallback, int maxInFlight, long timeoutMillis,
+            ExecutorService executor) {
+        this.router = new PaymentRouter(head);
+        this.fallback = fallback;
+        this.maxInFlight = maxInFlight;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executor;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public PaymentHandler getFallback() {
+        return fallback;
+    }
+
+    // a payment waiting on a saturated handler only holds a queue entry and a timer, not a thread,
+    // whichever of a free slot or the timeout claims it first decides where it runs, so it is never
+    // processed twice
+    public CompletableFuture<Void> handleRequest(double amount) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        PaymentHandler handler;
+        try {
+            handler = router.route(amount);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        if (closed) {
+            result.completeExceptionally(new RejectedExecutionException("AsyncPaymentRouter is closed"));
+            return result;
+        }
+        Window window = windows.computeIfAbsent(handler, h -> new Window());
+        if (window.permits.tryAcquire()) {
+            window.run(handler, amount, result);
+            return result;
+        }
+        Pending pending = new Pending(handler, amount, result);
+        try {
+            pending.timeout = timer.schedule(() -> {
+                if (pending.claim()) {
+                    submit(fallback, amount, result, null);
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        window.waiting.add(pending);
+        // a slot may have been released between the failed tryAcquire and the add
+        window.drain();
+        return result;
+    }
+
+    public void recompile(PaymentHandler head) {
+        router.recompile(head);
+    }
+
+    // payments still waiting for a slot fail instead of sitting out their timeout
+    @Override
+    public void close() {
+        closed = true;
+        RejectedExecutionException cause = new RejectedExecutionException("AsyncPaymentRouter is closed");
+        for (Window window : windows.values()) {
+            window.fail(cause);
+        }
+        timer.shutdown();
+        executor.shutdown();
+    }
+
+    // false when the executor rejected the payment, its result is failed and its slot given back
+    private boolean submit(PaymentHandler handler, double amount, CompletableFuture<Void> result, Window window) {
+        try {
+            executor.execute(() -> {
+                try {
+                    handler.dispatch(amount);
+                    result.complete(null);
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    if (window != null) {
+                        window.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+            if (window != null) {
+                // no drain here, it would submit the next waiting payment from inside this call
+                window.permits.release();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private final class Window {
+        private final Semaphore permits = new Semaphore(maxInFlight);
+        private final Queue<Pending> waiting = new ConcurrentLinkedQueue<>();
+
+        private boolean run(PaymentHandler handler, double amount, CompletableFuture<Void> result) {
+            return submit(handler, amount, result, this);
+        }
+
+        private void release() {
+            permits.release();
+            drain();
+        }
+
+        // hands free slots to waiting payments in order, entries already claimed by their timeout are skipped
+        private void drain() {
+            while (!waiting.isEmpty() && permits.tryAcquire()) {
+                Pending pending = waiting.poll();
+                if (pending != null && pending.claim()) {
+                    pending.timeout.cancel(false);
+                    if (!run(pending.handler, pending.amount, pending.result)) {
+                        fail(new RejectedExecutionException("Payment executor rejected a waiting payment"));
+                        return;
+                    }
+                } else {
+                    permits.release();
+                }
+            }
+        }
+
+        private void fail(Throwable cause) {
+            Pending pending;
+            while ((pending = waiting.poll()) != null) {
+                if (pending.claim()) {
+                    pending.timeout.cancel(false);
+                    pending.result.completeExceptionally(cause);
+                }
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final PaymentHandler handler;
+        private final double amount;
+        private final CompletableFuture<Void> result;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeout;
+
+        private Pending(PaymentHandler handler, double amount, CompletableFuture<Void> result) {
+            this.handler = handler;
+            this.amount = amount;
+            this.result = result;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -2,13 +2,13 @@ package chain_of_responsibilty;
 
 public class BankPaymentHandler extends PaymentHandler {
 
+   public BankPaymentHandler() {
+      super(500);
+   }
+
    @Override
-   public void handleRequest(double amount) {
-      if (amount <= 500) {
-         System.out.println("Processing payment by bank");
-      } else {
-         next.handleRequest(amount);
-      }
+   protected void process(double amount) {
+      System.out.println("Processing payment by bank");
    }
     
 }
@@ -0,0 +1,57 @@
+package chain_of_responsibilty;
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        PaymentHandler bankPaymentHandler = new BankPaymentHandler() {
+            @Override
+            protected void process(double amount) {
+                consume(1);
+            }
+        };
+        PaymentHandler creditPaymentHandler = new CreditPaymentHandler() {
+            @Override
+            protected void process(double amount) {
+                consume(1);
+            }
+        };
+        PaymentHandler paytmPaymentHandler = new PaytmPaymentHandler() {
+            @Override
+            protected void process(double amount) {
+                consume(1);
+            }
+        };
+        PaymentHandler universalPaymentHandler = new UniversalPaymentHandler() {
+            @Override
+            protected void process(double amount) {
+                consume(1);
+            }
+        };
+        bankPaymentHandler.setNext(creditPaymentHandler);
+        creditPaymentHandler.setNext(paytmPaymentHandler);
+        paytmPaymentHandler.setNext(universalPaymentHandler);
+
+        double[] amounts = new double[OPERATIONS];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = (i * 7919L) % 5000;
+        }
+        PaymentRouter router = new PaymentRouter(bankPaymentHandler);
+
+        measure("PaymentHandler.handleRequest", OPERATIONS, () -> {
+            for (double amount : amounts) {
+                bankPaymentHandler.handleRequest(amount);
+            }
+        });
+        measure("PaymentRouter.handleRequest", OPERATIONS, () -> {
+            for (double amount : amounts) {
+                router.handleRequest(amount);
+            }
+        });
+        measure("PaymentHandler.handleBatch", OPERATIONS, () -> bankPaymentHandler.handleBatch(amounts));
+    }
+}
@@ -2,13 +2,13 @@ package chain_of_responsibilty;
 
 public class CreditPaymentHandler extends PaymentHandler {
 
+    public CreditPaymentHandler() {
+        super(1000);
+    }
+
     @Override
-    public void handleRequest(double amount) {
-        if (amount <= 1000) {
-            System.out.println("Processing payment by credit");
-        } else {
-            next.handleRequest(amount);
-        }
+    protected void process(double amount) {
+        System.out.println("Processing payment by credit");
     }
     
 }
@@ -1,5 +1,7 @@
 package chain_of_responsibilty;
 
+import java.util.concurrent.CompletableFuture;
+
 public class Main {
 
     public static void main(String[] args) {
@@ -13,10 +15,45 @@ public class Main {
         paytmPaymentHandler.setNext(UniversalPaymentHandler);
 
 
+        PaymentMetrics metrics = new PaymentMetrics();
+        metrics.attach(bankPaymentHandler);
+
         bankPaymentHandler.handleRequest(100);
         bankPaymentHandler.handleRequest(600);
         bankPaymentHandler.handleRequest(2000);
         bankPaymentHandler.handleRequest(5000);
+
+        PaymentRouter router = new PaymentRouter(bankPaymentHandler);
+        router.handleRequest(100);
+        router.handleRequest(600);
+        router.handleRequest(2000);
+        router.handleRequest(5000);
+
+        bankPaymentHandler.handleBatch(new double[] { 100, 600, 2000, 5000, 300 });
+
+        PaymentHandler slowPaytmPaymentHandler = new PaytmPaymentHandler() {
+            @Override
+            protected void process(double amount) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.process(amount);
+            }
+        };
+        creditPaymentHandler.setNext(slowPaytmPaymentHandler);
+        slowPaytmPaymentHandler.setNext(UniversalPaymentHandler);
+
+        try (AsyncPaymentRouter asyncRouter = new AsyncPaymentRouter(bankPaymentHandler, 1, 50)) {
+            metrics.attach(bankPaymentHandler, asyncRouter.getFallback());
+            CompletableFuture.allOf(
+                    asyncRouter.handleRequest(1500),
+                    asyncRouter.handleRequest(1800),
+                    asyncRouter.handleRequest(100)).join();
+        }
+
+        metrics.dump(System.out);
     }
     
 }
@@ -1,11 +1,88 @@
 package chain_of_responsibilty;
 
 public abstract class PaymentHandler {
-    protected PaymentHandler next;
+    protected volatile PaymentHandler next;
+    private final double limit;
+    private volatile PaymentMetrics metrics;
+
+    protected PaymentHandler(double limit) {
+        this.limit = limit;
+    }
 
     public void setNext(PaymentHandler next) {
         this.next = next;
     }
 
-    public abstract void handleRequest(double amount);
-}
\ No newline at end of file
+    public PaymentHandler getNext() {
+        return next;
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public void setMetrics(PaymentMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public String getName() {
+        Class<?> type = getClass();
+        while (type.isAnonymousClass()) {
+            type = type.getSuperclass();
+        }
+        return type.getSimpleName();
+    }
+
+    // a handler without a limit takes every amount, NaN included, like the catch-all gateway always has
+    public void handleRequest(double amount) {
+        if (amount <= limit || limit == Double.POSITIVE_INFINITY) {
+            dispatch(amount);
+        } else {
+            PaymentMetrics current = this.metrics;
+            if (current != null) {
+                current.recordFallThrough(this);
+            }
+            next.handleRequest(amount);
+        }
+    }
+
+    public void handleBatch(double[] amounts) {
+        new PaymentRouter(this).handleBatch(amounts);
+    }
+
+    protected abstract void process(double amount);
+
+    protected void processBatch(double[] amounts, int from, int to) {
+        for (int i = from; i < to; i++) {
+            process(amounts[i]);
+        }
+    }
+
+    void dispatch(double amount) {
+        PaymentMetrics current = this.metrics;
+        if (current == null) {
+            process(amount);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            process(amount);
+        } finally {
+            current.recordCalls(this, 1, System.nanoTime() - start);
+        }
+    }
+
+    void dispatchBatch(double[] amounts, int from, int to) {
+        PaymentMetrics current = this.metrics;
+        if (current == null) {
+            processBatch(amounts, from, to);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            processBatch(amounts, from, to);
+        } finally {
+            current.recordCalls(this, to - from, System.nanoTime() - start);
+        }
+    }
+}
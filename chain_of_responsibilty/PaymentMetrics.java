@@ -0,0 +1,208 @@
+package chain_of_responsibilty;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PaymentMetrics implements AutoCloseable {
+
+    private final Map<String, HandlerStats> stats = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService reporter;
+
+    // instruments every handler reachable from the given heads, handlers spliced in later or kept outside
+    // the chain, like an AsyncPaymentRouter fallback, have to be attached as well to show up
+    public void attach(PaymentHandler... heads) {
+        for (PaymentHandler head : heads) {
+            for (PaymentHandler handler = head; handler != null; handler = handler.getNext()) {
+                handler.setMetrics(this);
+            }
+        }
+    }
+
+    // batches are recorded as count calls of the average slice latency
+    public void recordCalls(PaymentHandler handler, long count, long nanos) {
+        HandlerStats handlerStats = statsFor(handler);
+        handlerStats.calls.add(count);
+        handlerStats.totalNanos.add(nanos);
+        handlerStats.latency.record(nanos / Math.max(count, 1), count);
+    }
+
+    public void recordFallThrough(PaymentHandler handler) {
+        statsFor(handler).fallThroughs.increment();
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshot = new TreeMap<>();
+        stats.forEach((name, handlerStats) -> snapshot.put(name, handlerStats.snapshot()));
+        return snapshot;
+    }
+
+    public void dump(PrintStream out) {
+        snapshot().forEach((name, snapshot) -> out.println(name + " " + snapshot));
+    }
+
+    public synchronized void startReporting(long period, TimeUnit unit, PrintStream out) {
+        if (reporter != null) {
+            return;
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> dump(out), period, period, unit);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (reporter != null) {
+            reporter.shutdown();
+            reporter = null;
+        }
+    }
+
+    private HandlerStats statsFor(PaymentHandler handler) {
+        return stats.computeIfAbsent(handler.getName(), name -> new HandlerStats());
+    }
+
+    private static final class HandlerStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder fallThroughs = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Snapshot snapshot() {
+            long[] counts = latency.counts();
+            return new Snapshot(calls.sum(), fallThroughs.sum(), totalNanos.sum(),
+                    LatencyHistogram.percentile(counts, 0.50),
+                    LatencyHistogram.percentile(counts, 0.90),
+                    LatencyHistogram.percentile(counts, 0.99),
+                    LatencyHistogram.percentile(counts, 1.0));
+        }
+    }
+
+    // log-linear buckets with 3 sub-bucket bits, so every reported value is within 12.5% of the recorded one
+    private static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+        private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        private LatencyHistogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos, long count) {
+            buckets[indexOf(Math.max(nanos, 0))].add(count);
+        }
+
+        private long[] counts() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return counts;
+        }
+
+        private static int indexOf(long value) {
+            if (value < LINEAR_LIMIT) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long highestValueAt(int index) {
+            if (index < LINEAR_LIMIT) {
+                return index;
+            }
+            int exponent = (index - LINEAR_LIMIT) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+            long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS;
+            return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+
+        private static long percentile(long[] counts, double percentile) {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return highestValueAt(i);
+                }
+            }
+            return highestValueAt(counts.length - 1);
+        }
+    }
+
+    public static final class Snapshot {
+        private final long calls;
+        private final long fallThroughs;
+        private final long totalNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+        private Snapshot(long calls, long fallThroughs, long totalNanos, long p50Nanos, long p90Nanos, long p99Nanos,
+                long maxNanos) {
+            this.calls = calls;
+            this.fallThroughs = fallThroughs;
+            this.totalNanos = totalNanos;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getFallThroughs() {
+            return fallThroughs;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public long getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public long getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "calls=" + calls + " fallThroughs=" + fallThroughs + " p50=" + p50Nanos + "ns p90=" + p90Nanos
+                    + "ns p99=" + p99Nanos + "ns max=" + maxNanos + "ns";
+        }
+    }
+}
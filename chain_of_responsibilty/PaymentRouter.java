@@ -0,0 +1,105 @@
+package chain_of_responsibilty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentRouter {
+
+    private volatile Table table;
+
+    public PaymentRouter(PaymentHandler head) {
+        this.table = compile(head);
+    }
+
+    // swaps in a freshly compiled chain, callers already routing keep using the old table
+    public void recompile(PaymentHandler head) {
+        this.table = compile(head);
+    }
+
+    public PaymentHandler route(double amount) {
+        Table current = this.table;
+        return current.handlers[indexOf(current.limits, amount)];
+    }
+
+    public void handleRequest(double amount) {
+        route(amount).dispatch(amount);
+    }
+
+    // buckets the amounts by handler in one pass, then hands each handler its contiguous slice
+    public void handleBatch(double[] amounts) {
+        Table current = this.table;
+        int[] slots = new int[amounts.length];
+        int[] offsets = new int[current.handlers.length + 1];
+        for (int i = 0; i < amounts.length; i++) {
+            slots[i] = indexOf(current.limits, amounts[i]);
+            offsets[slots[i] + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        double[] partitioned = new double[amounts.length];
+        int[] cursor = offsets.clone();
+        for (int i = 0; i < amounts.length; i++) {
+            partitioned[cursor[slots[i]]++] = amounts[i];
+        }
+        for (int i = 0; i < current.handlers.length; i++) {
+            if (offsets[i] < offsets[i + 1]) {
+                current.handlers[i].dispatchBatch(partitioned, offsets[i], offsets[i + 1]);
+            }
+        }
+    }
+
+    // NaN fails every comparison, so like the chain it only ends up at a handler without a limit
+    private static int indexOf(double[] limits, double amount) {
+        int low = 0;
+        int high = limits.length - 1;
+        if (Double.isNaN(amount)) {
+            low = limits.length;
+        }
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (limits[mid] < amount) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (low == limits.length) {
+            if (low > 0 && limits[low - 1] == Double.POSITIVE_INFINITY) {
+                return low - 1;
+            }
+            throw new IllegalArgumentException("No payment handler accepts amount " + amount);
+        }
+        return low;
+    }
+
+    private static Table compile(PaymentHandler head) {
+        List<PaymentHandler> handlers = new ArrayList<>();
+        double max = Double.NEGATIVE_INFINITY;
+        // a handler whose limit is not above an earlier one is never reached by the chain
+        for (PaymentHandler handler = head; handler != null; handler = handler.getNext()) {
+            if (handler.getLimit() > max) {
+                handlers.add(handler);
+                max = handler.getLimit();
+            }
+            if (max == Double.POSITIVE_INFINITY) {
+                break;
+            }
+        }
+        double[] limits = new double[handlers.size()];
+        for (int i = 0; i < limits.length; i++) {
+            limits[i] = handlers.get(i).getLimit();
+        }
+        return new Table(handlers.toArray(new PaymentHandler[0]), limits);
+    }
+
+    private static final class Table {
+        private final PaymentHandler[] handlers;
+        private final double[] limits;
+
+        private Table(PaymentHandler[] handlers, double[] limits) {
+            this.handlers = handlers;
+            this.limits = limits;
+        }
+    }
+}
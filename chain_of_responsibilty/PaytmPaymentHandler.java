@@ -2,12 +2,12 @@ package chain_of_responsibilty;
 
 public class PaytmPaymentHandler extends PaymentHandler {
 
+    public PaytmPaymentHandler() {
+        super(2000);
+    }
+
     @Override
-    public void handleRequest(double amount) {
-        if (amount <= 2000) {
-            System.out.println("Processing payment by Paytm");
-        } else {
-            next.handleRequest(amount);
-        }
+    protected void process(double amount) {
+        System.out.println("Processing payment by Paytm");
     }
 }
@@ -2,8 +2,12 @@ package chain_of_responsibilty;
 
 public class UniversalPaymentHandler extends PaymentHandler {
 
+    public UniversalPaymentHandler() {
+        super(Double.POSITIVE_INFINITY);
+    }
+
     @Override
-    public void handleRequest(double amount) {
+    protected void process(double amount) {
         System.out.println("Processing payment by universal payment gateway");
     }
     
@@ -12,5 +12,12 @@ public class Main {
 
 
         textFileOperationExecutor.readOperations();
+
+        try (PipelinedTextFileOperationExecutor pipelinedExecutor = new PipelinedTextFileOperationExecutor()) {
+            TextFile textFile = new TextFile("file3.txt");
+            pipelinedExecutor.executeOperation(new OpenTextFileOperation(textFile)).thenAccept(System.out::println);
+            pipelinedExecutor.executeOperation(new SaveTextFileOperation(textFile));
+            pipelinedExecutor.executeOperation(new SaveTextFileOperation(textFile)).thenAccept(System.out::println).join();
+        }
     }
 }
\ No newline at end of file
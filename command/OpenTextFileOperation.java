@@ -7,6 +7,11 @@ public class OpenTextFileOperation implements TextFileOperation {
         this.textFile = textFile;
     }
 
+    @Override
+    public TextFile getTextFile() {
+        return textFile;
+    }
+
     @Override
     public String execute() {
         return textFile.open();
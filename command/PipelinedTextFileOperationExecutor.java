@@ -0,0 +1,127 @@
+package command;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Queues operations per file name and runs the queues of different files in parallel,
+ * while operations on the same file keep their submission order. A save queued right behind
+ * another save of the same file that has not started yet is merged into it.
+ */
+public class PipelinedTextFileOperationExecutor implements AutoCloseable {
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public PipelinedTextFileOperationExecutor() {
+        this(Executors.newCachedThreadPool());
+    }
+
+    public PipelinedTextFileOperationExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public CompletableFuture<String> executeOperation(TextFileOperation textFileOperation) {
+        TextFile textFile = textFileOperation.getTextFile();
+        if (textFile == null) {
+            return CompletableFuture.supplyAsync(textFileOperation::execute, executor);
+        }
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(textFile.getName(), Lane::new);
+            CompletableFuture<String> result = lane.offer(textFileOperation);
+            if (result != null) {
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static final class Pending {
+        private final TextFileOperation textFileOperation;
+        private final List<CompletableFuture<String>> results = new ArrayList<>(1);
+
+        private Pending(TextFileOperation textFileOperation) {
+            this.textFileOperation = textFileOperation;
+        }
+    }
+
+    private final class Lane implements Runnable {
+        private final String name;
+        private final Deque<Pending> queue = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean retired;
+
+        private Lane(String name) {
+            this.name = name;
+        }
+
+        // null when the lane was retired in the meantime and the caller has to fetch a fresh one
+        private synchronized CompletableFuture<String> offer(TextFileOperation textFileOperation) {
+            if (retired) {
+                return null;
+            }
+            CompletableFuture<String> result = new CompletableFuture<>();
+            Pending last = queue.peekLast();
+            if (last != null && textFileOperation instanceof SaveTextFileOperation
+                    && last.textFileOperation instanceof SaveTextFileOperation) {
+                last.results.add(result);
+                return result;
+            }
+            Pending pending = new Pending(textFileOperation);
+            pending.results.add(result);
+            queue.add(pending);
+            if (!scheduled) {
+                scheduled = true;
+                executor.execute(this);
+            }
+            return result;
+        }
+
+        private synchronized Pending next() {
+            Pending pending = queue.poll();
+            if (pending == null) {
+                scheduled = false;
+                retired = true;
+                lanes.remove(name, this);
+            }
+            return pending;
+        }
+
+        @Override
+        public void run() {
+            Pending pending;
+            while ((pending = next()) != null) {
+                try {
+                    String output = pending.textFileOperation.execute();
+                    for (CompletableFuture<String> result : pending.results) {
+                        result.complete(output);
+                    }
+                } catch (RuntimeException e) {
+                    fail(pending, e);
+                } catch (Error e) {
+                    fail(pending, e);
+                    // the lane is still scheduled, so a fresh task has to pick up the rest of its queue
+                    executor.execute(this);
+                    throw e;
+                }
+            }
+        }
+
+        private void fail(Pending pending, Throwable failure) {
+            for (CompletableFuture<String> result : pending.results) {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+}
@@ -7,6 +7,11 @@ public class SaveTextFileOperation implements TextFileOperation {
         this.textFile = textFile;
     }
 
+    @Override
+    public TextFile getTextFile() {
+        return textFile;
+    }
+
     @Override
     public String execute() {
         return textFile.save();
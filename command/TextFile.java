@@ -7,6 +7,10 @@ public class TextFile {
         this.name = name;
     }
 
+    public String getName() {
+        return this.name;
+    }
+
     public String open() {
         return "Opening the file: " + this.name;
     }
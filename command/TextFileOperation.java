@@ -1,7 +1,11 @@
-
 package command;
 
 @FunctionalInterface
 public interface TextFileOperation {
    String execute();
-}
\ No newline at end of file
+
+   // operations without a file have no ordering constraints
+   default TextFile getTextFile() {
+      return null;
+   }
+}
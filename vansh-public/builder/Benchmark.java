@@ -0,0 +1,32 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        measure("Burger.BurgerBuilder.build", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                Burger burger = new Burger.BurgerBuilder()
+                        .size("Large")
+                        .egg(true)
+                        .mayonnaise(true)
+                        .mustard(true)
+                        .onion(true)
+                        .pickles(true)
+                        .lettuce(true)
+                        .tomato(true)
+                        .build();
+                consume(burger.hashCode());
+            }
+        });
+        measure("MealDirector.construct", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                MealDirector mealDirector = new MealDirector((i & 1) == 0 ? new VegMealBuilde() : new NonVegMealBuilder());
+                consume(mealDirector.construct().getCurry().length());
+            }
+        });
+    }
+}
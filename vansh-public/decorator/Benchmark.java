@@ -0,0 +1,23 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 100_000;
+
+    public static void main(String[] args) {
+        for (int depth : new int[] { 1, 8, 64 }) {
+            Pizza pizza = new BasePizza();
+            for (int i = 0; i < depth; i++) {
+                pizza = i % 2 == 0 ? new JalepanoDecorator(pizza) : new CheeseBurstDecorator(pizza);
+            }
+            Pizza stack = pizza;
+            measure("PizzaDecorator.bake depth " + depth, OPERATIONS, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    consume(stack.bake().length());
+                }
+            });
+        }
+    }
+}
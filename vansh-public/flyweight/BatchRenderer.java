@@ -0,0 +1,177 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+public class BatchRenderer {
+
+    private static final ShapeFactory.ShapeType[] TYPES = ShapeFactory.ShapeType.values();
+
+    private final int tileSize;
+    private final ForkJoinPool pool;
+
+    public BatchRenderer(int tileSize) {
+        this(tileSize, ForkJoinPool.commonPool());
+    }
+
+    public BatchRenderer(int tileSize, ForkJoinPool pool) {
+        this.tileSize = tileSize;
+        this.pool = pool;
+    }
+
+    public BufferedImage render(ShapeBatch batch, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        render(batch, image);
+        return image;
+    }
+
+    public void render(ShapeBatch batch, BufferedImage image) {
+        int columns = (image.getWidth() + tileSize - 1) / tileSize;
+        int rows = (image.getHeight() + tileSize - 1) / tileSize;
+        int[] order = drawOrder(batch);
+
+        // bins every shape into the tiles it overlaps, keeping the draw order inside each tile
+        int[] tileStarts = new int[columns * rows + 1];
+        for (int index : order) {
+            forEachTile(batch, index, columns, rows, tile -> tileStarts[tile + 1]++);
+        }
+        for (int i = 1; i < tileStarts.length; i++) {
+            tileStarts[i] += tileStarts[i - 1];
+        }
+        int[] tileShapes = new int[tileStarts[tileStarts.length - 1]];
+        int[] cursor = tileStarts.clone();
+        for (int index : order) {
+            forEachTile(batch, index, columns, rows, tile -> tileShapes[cursor[tile]++] = index);
+        }
+
+        pool.invoke(new TileTask(batch, tileStarts, tileShapes, image, columns, 0, columns * rows));
+    }
+
+    private void forEachTile(ShapeBatch batch, int index, int columns, int rows, IntConsumer action) {
+        int firstColumn = Math.max(minX(batch, index) / tileSize, 0);
+        int lastColumn = Math.min(maxX(batch, index) / tileSize, columns - 1);
+        int firstRow = Math.max(minY(batch, index) / tileSize, 0);
+        int lastRow = Math.min(maxY(batch, index) / tileSize, rows - 1);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                action.accept(row * columns + column);
+            }
+        }
+    }
+
+    private static boolean isLine(ShapeBatch batch, int index) {
+        return TYPES[batch.getTypeOrdinal(index)] == ShapeFactory.ShapeType.LINE;
+    }
+
+    private static int minX(ShapeBatch batch, int index) {
+        return isLine(batch, index) ? Math.min(batch.getX(index), batch.getWidth(index)) : batch.getX(index);
+    }
+
+    private static int minY(ShapeBatch batch, int index) {
+        return isLine(batch, index) ? Math.min(batch.getY(index), batch.getHeight(index)) : batch.getY(index);
+    }
+
+    private static int maxX(ShapeBatch batch, int index) {
+        return isLine(batch, index) ? Math.max(batch.getX(index), batch.getWidth(index))
+                : batch.getX(index) + batch.getWidth(index);
+    }
+
+    private static int maxY(ShapeBatch batch, int index) {
+        return isLine(batch, index) ? Math.max(batch.getY(index), batch.getHeight(index))
+                : batch.getY(index) + batch.getHeight(index);
+    }
+
+    // groups the shapes by type, then by colour, so a tile switches colour as rarely as possible
+    static int[] drawOrder(ShapeBatch batch) {
+        int size = batch.size();
+        int[] offsets = new int[TYPES.length + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[batch.getTypeOrdinal(i) + 1]++;
+        }
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+        long[] keys = new long[size];
+        int[] cursor = offsets.clone();
+        for (int i = 0; i < size; i++) {
+            keys[cursor[batch.getTypeOrdinal(i)]++] = ((batch.getRgb(i) & 0xFFFFFFFFL) << 31) | i;
+        }
+        for (int i = 0; i < TYPES.length; i++) {
+            Arrays.parallelSort(keys, offsets[i], offsets[i + 1]);
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = (int) (keys[i] & Integer.MAX_VALUE);
+        }
+        return order;
+    }
+
+    private final class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ShapeBatch batch;
+        private final int[] tileStarts;
+        private final int[] tileShapes;
+        private final BufferedImage image;
+        private final int columns;
+        private final int from;
+        private final int to;
+
+        private TileTask(ShapeBatch batch, int[] tileStarts, int[] tileShapes, BufferedImage image, int columns,
+                int from, int to) {
+            this.batch = batch;
+            this.tileStarts = tileStarts;
+            this.tileShapes = tileShapes;
+            this.image = image;
+            this.columns = columns;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileTask(batch, tileStarts, tileShapes, image, columns, from, mid),
+                        new TileTask(batch, tileStarts, tileShapes, image, columns, mid, to));
+                return;
+            }
+            if (tileStarts[from] == tileStarts[from + 1]) {
+                return;
+            }
+            int left = (from % columns) * tileSize;
+            int top = (from / columns) * tileSize;
+            Graphics2D graphics = image.createGraphics();
+            try {
+                graphics.setClip(left, top, Math.min(tileSize, image.getWidth() - left),
+                        Math.min(tileSize, image.getHeight() - top));
+                drawTile(graphics, tileStarts[from], tileStarts[from + 1]);
+            } finally {
+                graphics.dispose();
+            }
+        }
+
+        private void drawTile(Graphics2D graphics, int start, int end) {
+            Color color = null;
+            int currentType = -1;
+            Shape shape = null;
+            for (int i = start; i < end; i++) {
+                int index = tileShapes[i];
+                int type = batch.getTypeOrdinal(index);
+                if (type != currentType) {
+                    currentType = type;
+                    shape = ShapeFactory.getShape(TYPES[type]);
+                }
+                int rgb = batch.getRgb(index);
+                if (color == null || color.getRGB() != rgb) {
+                    color = new Color(rgb, true);
+                }
+                shape.draw(graphics, batch.getX(index), batch.getY(index), batch.getWidth(index),
+                        batch.getHeight(index), color);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    private static final int SHAPES = 100_000;
+
+    public static void main(String[] args) {
+        ShapeFactory.ShapeType[] types = ShapeFactory.ShapeType.values();
+        for (ShapeFactory.ShapeType type : types) {
+            ShapeFactory.getShape(type);
+        }
+
+        measure("ShapeFactory.getShape", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(ShapeFactory.getShape(types[i % types.length]).hashCode());
+            }
+        });
+
+        ShapeBatch batch = new ShapeBatch(SHAPES);
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < SHAPES; i++) {
+            ShapeFactory.ShapeType type = types[random.nextInt(types.length)];
+            int x = random.nextInt(2048);
+            int y = random.nextInt(2048);
+            int width = random.nextInt(32);
+            int height = random.nextInt(32);
+            if (type == ShapeFactory.ShapeType.LINE) {
+                width += x;
+                height += y;
+            }
+            batch.add(type, x, y, width, height, 0xFF000000 | random.nextInt(16) * 0x111111);
+        }
+        BatchRenderer renderer = new BatchRenderer(256);
+        measure("BatchRenderer.render 2048x2048", SHAPES, () -> {
+            consume(renderer.render(batch, 2048, 2048).getRGB(0, 0));
+        });
+    }
+}
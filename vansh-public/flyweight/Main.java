@@ -15,6 +15,7 @@ public class Main extends JPanel {
     }
 
     public static void main(String[] args) {
+        ShapeFactory.warmUp();
         JFrame frame = new JFrame("Shape Drawer");
         frame.setSize(300, 200);
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -0,0 +1,89 @@
+import java.awt.Color;
+import java.util.Arrays;
+
+// extrinsic state for many shapes packed in parallel primitive arrays, for lines the
+// width and height columns hold the end point just like Shape.draw
+public class ShapeBatch {
+
+    private static final ShapeFactory.ShapeType[] TYPES = ShapeFactory.ShapeType.values();
+
+    private byte[] types;
+    private int[] x;
+    private int[] y;
+    private int[] width;
+    private int[] height;
+    private int[] rgb;
+    private int size;
+
+    public ShapeBatch() {
+        this(1024);
+    }
+
+    public ShapeBatch(int capacity) {
+        this.types = new byte[capacity];
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.width = new int[capacity];
+        this.height = new int[capacity];
+        this.rgb = new int[capacity];
+    }
+
+    public void add(ShapeFactory.ShapeType type, int x, int y, int width, int height, Color color) {
+        add(type, x, y, width, height, color.getRGB());
+    }
+
+    public void add(ShapeFactory.ShapeType type, int x, int y, int width, int height, int rgb) {
+        if (size == types.length) {
+            grow();
+        }
+        this.types[size] = (byte) type.ordinal();
+        this.x[size] = x;
+        this.y[size] = y;
+        this.width[size] = width;
+        this.height[size] = height;
+        this.rgb[size] = rgb;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ShapeFactory.ShapeType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    public int getTypeOrdinal(int index) {
+        return types[index];
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public int getWidth(int index) {
+        return width[index];
+    }
+
+    public int getHeight(int index) {
+        return height[index];
+    }
+
+    public int getRgb(int index) {
+        return rgb[index];
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, types.length * 2);
+        types = Arrays.copyOf(types, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+        rgb = Arrays.copyOf(rgb, capacity);
+    }
+}
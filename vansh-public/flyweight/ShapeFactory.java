@@ -1,21 +1,44 @@
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class ShapeFactory {
 
-    private static final HashMap<ShapeType, Shape> shapes = new HashMap<>();
+    private static final AtomicReferenceArray<Shape> shapes = new AtomicReferenceArray<>(ShapeType.values().length);
+
+    private static final Object[] locks = new Object[ShapeType.values().length];
+
+    static {
+        Arrays.setAll(locks, i -> new Object());
+    }
 
     public static Shape getShape(ShapeType type) {
-        Shape shapeImpl = shapes.get(type);
+        Shape shapeImpl = shapes.get(type.ordinal());
         if (shapeImpl == null) {
-            shapeImpl = switch (type) {
-                case OVAL_FILL -> new Oval(true);
-                case OVAL_NOFILL -> new Oval(false);
-                case LINE -> new Line();
-            };
-            shapes.put(type, shapeImpl);
+            shapeImpl = createShape(type);
         }
         return shapeImpl;
     }
+
+    // builds every shape up front, in parallel, so the first draw never pays for construction
+    public static void warmUp() {
+        Arrays.stream(ShapeType.values()).parallel().forEach(ShapeFactory::getShape);
+    }
+
+    // one lock per type keeps construction exactly-once without blocking lookups of other types
+    private static Shape createShape(ShapeType type) {
+        synchronized (locks[type.ordinal()]) {
+            Shape shapeImpl = shapes.get(type.ordinal());
+            if (shapeImpl == null) {
+                shapeImpl = switch (type) {
+                    case OVAL_FILL -> new Oval(true);
+                    case OVAL_NOFILL -> new Oval(false);
+                    case LINE -> new Line();
+                };
+                shapes.set(type.ordinal(), shapeImpl);
+            }
+            return shapeImpl;
+        }
+    }
     
 
 
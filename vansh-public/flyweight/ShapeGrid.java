@@ -0,0 +1,152 @@
+import java.awt.Graphics;
+import java.util.Arrays;
+
+// uniform grid over a ShapeStore so a viewport only visits the shapes in the cells it covers,
+// shapes outside the world bounds are kept in the border cells
+public class ShapeGrid {
+
+    private final ShapeStore store;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final Cell[] cells;
+    private int[] visited = new int[0];
+    private int queryStamp;
+
+    public ShapeGrid(ShapeStore store, int cellSize, int worldWidth, int worldHeight) {
+        this.store = store;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (worldWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (worldHeight + cellSize - 1) / cellSize);
+        this.cells = new Cell[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+        }
+        for (int i = 0; i < store.size(); i++) {
+            insert(i);
+        }
+    }
+
+    public int add(ShapeFactory.ShapeType type, int x, int y, int width, int height, int rgb) {
+        int index = store.add(type, x, y, width, height, rgb);
+        insert(index);
+        return index;
+    }
+
+    // lines move both end points so their length and direction are kept
+    public void move(int index, int x, int y) {
+        remove(index);
+        ShapeFactory.ShapeType type = store.getType(index);
+        int width = store.getWidth(index);
+        int height = store.getHeight(index);
+        if (type == ShapeFactory.ShapeType.LINE) {
+            width += x - store.getX(index);
+            height += y - store.getY(index);
+        }
+        store.set(index, type, x, y, width, height, store.getRgb(index));
+        insert(index);
+    }
+
+    public void query(int x, int y, int width, int height, ShapeVisitor visitor) {
+        if (visited.length < store.size()) {
+            visited = Arrays.copyOf(visited, Math.max(store.size(), visited.length * 2));
+        }
+        int stamp = ++queryStamp;
+        if (stamp == 0) {
+            Arrays.fill(visited, 0);
+            stamp = ++queryStamp;
+        }
+        int right = x + width;
+        int bottom = y + height;
+        for (int row = rowOf(y); row <= rowOf(bottom); row++) {
+            for (int column = columnOf(x); column <= columnOf(right); column++) {
+                Cell cell = cells[row * columns + column];
+                for (int i = 0; i < cell.size; i++) {
+                    int index = cell.items[i];
+                    if (visited[index] == stamp) {
+                        continue;
+                    }
+                    visited[index] = stamp;
+                    if (maxX(index) < x || minX(index) > right || maxY(index) < y || minY(index) > bottom) {
+                        continue;
+                    }
+                    visitor.visit(index, store.getType(index), store.getX(index), store.getY(index),
+                            store.getWidth(index), store.getHeight(index), store.getRgb(index));
+                }
+            }
+        }
+    }
+
+    public void draw(Graphics g, int x, int y, int width, int height) {
+        ShapeStore.ColorCache colors = new ShapeStore.ColorCache();
+        query(x, y, width, height, (index, type, shapeX, shapeY, shapeWidth, shapeHeight, rgb) ->
+                ShapeFactory.getShape(type).draw(g, shapeX, shapeY, shapeWidth, shapeHeight, colors.get(rgb)));
+    }
+
+    private void insert(int index) {
+        for (int row = rowOf(minY(index)); row <= rowOf(maxY(index)); row++) {
+            for (int column = columnOf(minX(index)); column <= columnOf(maxX(index)); column++) {
+                cells[row * columns + column].add(index);
+            }
+        }
+    }
+
+    private void remove(int index) {
+        for (int row = rowOf(minY(index)); row <= rowOf(maxY(index)); row++) {
+            for (int column = columnOf(minX(index)); column <= columnOf(maxX(index)); column++) {
+                cells[row * columns + column].remove(index);
+            }
+        }
+    }
+
+    private int columnOf(int x) {
+        return Math.min(Math.max(Math.floorDiv(x, cellSize), 0), columns - 1);
+    }
+
+    private int rowOf(int y) {
+        return Math.min(Math.max(Math.floorDiv(y, cellSize), 0), rows - 1);
+    }
+
+    private boolean isLine(int index) {
+        return store.getType(index) == ShapeFactory.ShapeType.LINE;
+    }
+
+    private int minX(int index) {
+        return isLine(index) ? Math.min(store.getX(index), store.getWidth(index)) : store.getX(index);
+    }
+
+    private int minY(int index) {
+        return isLine(index) ? Math.min(store.getY(index), store.getHeight(index)) : store.getY(index);
+    }
+
+    private int maxX(int index) {
+        return isLine(index) ? Math.max(store.getX(index), store.getWidth(index))
+                : store.getX(index) + store.getWidth(index);
+    }
+
+    private int maxY(int index) {
+        return isLine(index) ? Math.max(store.getY(index), store.getHeight(index))
+                : store.getY(index) + store.getHeight(index);
+    }
+
+    private static final class Cell {
+        private int[] items = new int[4];
+        private int size;
+
+        private void add(int index) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = index;
+        }
+
+        private void remove(int index) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == index) {
+                    items[i] = items[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
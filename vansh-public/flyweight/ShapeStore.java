@@ -0,0 +1,133 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// columnar off-heap storage of shape instances, the heap only holds the column buffers
+public class ShapeStore {
+
+    private static final ShapeFactory.ShapeType[] TYPES = ShapeFactory.ShapeType.values();
+
+    private static final int INT_COLUMNS = 5;
+    private static final int X = 0;
+    private static final int Y = 1;
+    private static final int WIDTH = 2;
+    private static final int HEIGHT = 3;
+    private static final int RGB = 4;
+
+    private ByteBuffer types;
+    private ByteBuffer[] columns = new ByteBuffer[INT_COLUMNS];
+    private int capacity;
+    private int size;
+
+    public ShapeStore(int capacity) {
+        this.capacity = Math.max(capacity, 16);
+        this.types = ByteBuffer.allocateDirect(this.capacity);
+        for (int i = 0; i < INT_COLUMNS; i++) {
+            this.columns[i] = ByteBuffer.allocateDirect(this.capacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    public int add(ShapeFactory.ShapeType type, int x, int y, int width, int height, Color color) {
+        return add(type, x, y, width, height, color.getRGB());
+    }
+
+    public int add(ShapeFactory.ShapeType type, int x, int y, int width, int height, int rgb) {
+        if (size == capacity) {
+            grow();
+        }
+        int index = size++;
+        set(index, type, x, y, width, height, rgb);
+        return index;
+    }
+
+    public void set(int index, ShapeFactory.ShapeType type, int x, int y, int width, int height, int rgb) {
+        types.put(index, (byte) type.ordinal());
+        putInt(X, index, x);
+        putInt(Y, index, y);
+        putInt(WIDTH, index, width);
+        putInt(HEIGHT, index, height);
+        putInt(RGB, index, rgb);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public ShapeFactory.ShapeType getType(int index) {
+        return TYPES[types.get(index)];
+    }
+
+    public int getX(int index) {
+        return getInt(X, index);
+    }
+
+    public int getY(int index) {
+        return getInt(Y, index);
+    }
+
+    public int getWidth(int index) {
+        return getInt(WIDTH, index);
+    }
+
+    public int getHeight(int index) {
+        return getInt(HEIGHT, index);
+    }
+
+    public int getRgb(int index) {
+        return getInt(RGB, index);
+    }
+
+    public void forEach(ShapeVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(i, getType(i), getX(i), getY(i), getWidth(i), getHeight(i), getRgb(i));
+        }
+    }
+
+    public void draw(Graphics g) {
+        ColorCache colors = new ColorCache();
+        forEach((index, type, x, y, width, height, rgb) ->
+                ShapeFactory.getShape(type).draw(g, x, y, width, height, colors.get(rgb)));
+    }
+
+    private int getInt(int column, int index) {
+        return columns[column].getInt(index * Integer.BYTES);
+    }
+
+    private void putInt(int column, int index, int value) {
+        columns[column].putInt(index * Integer.BYTES, value);
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        types = copy(types, newCapacity);
+        for (int i = 0; i < INT_COLUMNS; i++) {
+            columns[i] = copy(columns[i], newCapacity * Integer.BYTES).order(ByteOrder.nativeOrder());
+        }
+        capacity = newCapacity;
+    }
+
+    private static ByteBuffer copy(ByteBuffer source, int newCapacity) {
+        ByteBuffer target = ByteBuffer.allocateDirect(newCapacity);
+        ByteBuffer view = source.duplicate();
+        view.clear();
+        target.put(view);
+        target.clear();
+        return target;
+    }
+
+    // direct-mapped cache so a scene with a small palette creates each Color once per pass
+    static final class ColorCache {
+        private final Color[] colors = new Color[256];
+
+        Color get(int rgb) {
+            int slot = (rgb ^ (rgb >>> 8) ^ (rgb >>> 16)) & 0xFF;
+            Color color = colors[slot];
+            if (color == null || color.getRGB() != rgb) {
+                color = new Color(rgb, true);
+                colors[slot] = color;
+            }
+            return color;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+@FunctionalInterface
+public interface ShapeVisitor {
+    void visit(int index, ShapeFactory.ShapeType type, int x, int y, int width, int height, int rgb);
+}
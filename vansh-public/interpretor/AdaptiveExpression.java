@@ -0,0 +1,216 @@
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// evaluates an expression tree with nested ands and ors flattened, structurally equal subtrees shared and
+// evaluated at most once per interpret call, and operands reordered from observed hit rates and cost so the
+// operand most likely to short-circuit cheaply runs first
+public class AdaptiveExpression implements Expression {
+
+    private static final byte TERMINAL = 0;
+    private static final byte AND = 1;
+    private static final byte OR = 2;
+    private static final byte NOT = 3;
+    private static final byte OPAQUE = 4;
+
+    private static final int REORDER_INTERVAL = 1024;
+
+    private final Node root;
+    private final int nodeCount;
+
+    private AdaptiveExpression(Node root, int nodeCount) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+    }
+
+    public static AdaptiveExpression of(Expression expression) {
+        Builder builder = new Builder();
+        Node root = builder.build(expression);
+        return new AdaptiveExpression(root, builder.nodes.size());
+    }
+
+    @Override
+    public boolean interpret(String context) {
+        return evaluate(root, context, new Call(nodeCount));
+    }
+
+    private static boolean evaluate(Node node, String context, Call call) {
+        byte memo = call.memo[node.id];
+        if (memo != 0) {
+            return memo == 2;
+        }
+        long workBefore = call.work;
+        boolean result;
+        switch (node.kind) {
+            case TERMINAL -> {
+                call.work++;
+                result = context.contains(node.data);
+            }
+            case NOT -> result = !evaluate(node.children[0], context, call);
+            case AND -> {
+                result = true;
+                for (Node child : node.order) {
+                    if (!evaluate(child, context, call)) {
+                        result = false;
+                        break;
+                    }
+                }
+            }
+            case OR -> {
+                result = false;
+                for (Node child : node.order) {
+                    if (evaluate(child, context, call)) {
+                        result = true;
+                        break;
+                    }
+                }
+            }
+            default -> {
+                call.work++;
+                result = node.opaque.interpret(context);
+            }
+        }
+        call.memo[node.id] = (byte) (result ? 2 : 1);
+        node.record(result, call.work - workBefore);
+        return result;
+    }
+
+    // per call state, the memo is what makes shared subtrees cheap
+    private static final class Call {
+        private final byte[] memo;
+        private long work;
+
+        private Call(int nodeCount) {
+            this.memo = new byte[nodeCount];
+        }
+    }
+
+    // statistics are plain fields, a racing update may be lost which only makes the ordering slightly stale
+    private static final class Node {
+        private final int id;
+        private final byte kind;
+        private final String data;
+        private final Expression opaque;
+        private final Node[] children;
+        private volatile Node[] order;
+        private long evaluations;
+        private long hits;
+        private long work;
+
+        private Node(int id, byte kind, String data, Expression opaque, Node[] children) {
+            this.id = id;
+            this.kind = kind;
+            this.data = data;
+            this.opaque = opaque;
+            this.children = children;
+            this.order = children;
+        }
+
+        private void record(boolean result, long cost) {
+            long count = ++evaluations;
+            if (result) {
+                hits++;
+            }
+            work += cost;
+            if ((kind == AND || kind == OR) && count % REORDER_INTERVAL == 0) {
+                reorder();
+            }
+        }
+
+        // other threads keep updating the statistics, so the ranks are copied once and the sort only ever
+        // sees that snapshot, sorting live values could break the comparator contract mid-sort
+        private void reorder() {
+            Node[] current = order;
+            boolean shortCircuitOn = kind == OR;
+            double[] ranks = new double[current.length];
+            Integer[] indices = new Integer[current.length];
+            for (int i = 0; i < current.length; i++) {
+                ranks[i] = current[i].rank(shortCircuitOn);
+                indices[i] = i;
+            }
+            Arrays.sort(indices, Comparator.comparingDouble(i -> ranks[i]));
+            Node[] reordered = new Node[current.length];
+            for (int i = 0; i < current.length; i++) {
+                reordered[i] = current[indices[i]];
+            }
+            order = reordered;
+        }
+
+        // expected cost paid per short circuit, lower runs earlier
+        private double rank(boolean shortCircuitOn) {
+            double calls = evaluations;
+            double matches = shortCircuitOn ? hits : evaluations - hits;
+            double probability = (matches + 1) / (calls + 2);
+            double cost = (work + 1) / (calls + 1);
+            return cost / probability;
+        }
+    }
+
+    private static final class Builder {
+        private final List<Node> nodes = new ArrayList<>();
+        private final Map<String, Node> shared = new HashMap<>();
+        private final Map<Expression, Integer> opaqueIds = new IdentityHashMap<>();
+        private final Map<Node, String> keys = new IdentityHashMap<>();
+
+        private Node build(Expression expression) {
+            if (expression instanceof TerminalExpression terminal) {
+                return intern("T" + terminal.getData().length() + ":" + terminal.getData(), TERMINAL,
+                        terminal.getData(), null, new Node[0]);
+            }
+            if (expression instanceof NotExpression not) {
+                Node child = build(not.getExpr());
+                return intern("!(" + keys.get(child) + ")", NOT, null, null, new Node[] { child });
+            }
+            if (expression instanceof AndExpression || expression instanceof OrExpression) {
+                byte kind = expression instanceof AndExpression ? AND : OR;
+                List<Node> operands = new ArrayList<>();
+                flatten(expression, kind, operands);
+                // operand order does not change the result, so a & b and b & a share one node
+                Map<String, Node> unique = new HashMap<>();
+                for (Node operand : operands) {
+                    unique.putIfAbsent(keys.get(operand), operand);
+                }
+                if (unique.size() == 1) {
+                    return unique.values().iterator().next();
+                }
+                List<String> operandKeys = new ArrayList<>(unique.keySet());
+                operandKeys.sort(null);
+                Node[] children = new Node[operandKeys.size()];
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = unique.get(operandKeys.get(i));
+                }
+                return intern((kind == AND ? "&" : "|") + operandKeys, kind, null, null, children);
+            }
+            int opaqueId = opaqueIds.computeIfAbsent(expression, key -> opaqueIds.size());
+            return intern("O" + opaqueId, OPAQUE, null, expression, new Node[0]);
+        }
+
+        private void flatten(Expression expression, byte kind, List<Node> operands) {
+            if (kind == AND && expression instanceof AndExpression and) {
+                flatten(and.getExpr1(), kind, operands);
+                flatten(and.getExpr2(), kind, operands);
+            } else if (kind == OR && expression instanceof OrExpression or) {
+                flatten(or.getExpr1(), kind, operands);
+                flatten(or.getExpr2(), kind, operands);
+            } else {
+                operands.add(build(expression));
+            }
+        }
+
+        private Node intern(String key, byte kind, String data, Expression opaque, Node[] children) {
+            Node node = shared.get(key);
+            if (node == null) {
+                node = new Node(nodes.size(), kind, data, opaque, children);
+                nodes.add(node);
+                shared.put(key, node);
+                keys.put(node, key);
+            }
+            return node;
+        }
+    }
+}
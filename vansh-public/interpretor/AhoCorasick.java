@@ -0,0 +1,128 @@
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+// matches every keyword against a text in one left to right scan
+public class AhoCorasick {
+
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] failure;
+    private final int[][] outputs;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public AhoCorasick(List<String> keywords) {
+        int maxStates = 1;
+        for (String keyword : keywords) {
+            maxStates += keyword.length();
+        }
+        Map<Character, Integer>[] goTo = new Map[maxStates];
+        int[][] matches = new int[maxStates][];
+        goTo[0] = new HashMap<>();
+        int states = 1;
+        for (int i = 0; i < keywords.size(); i++) {
+            int state = 0;
+            for (char c : keywords.get(i).toCharArray()) {
+                Integer next = goTo[state].get(c);
+                if (next == null) {
+                    next = states++;
+                    goTo[next] = new HashMap<>();
+                    goTo[state].put(c, next);
+                }
+                state = next;
+            }
+            matches[state] = append(matches[state], i);
+        }
+
+        int[] fail = new int[states];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int next : goTo[0].values()) {
+            queue.add(next);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Character, Integer> edge : goTo[state].entrySet()) {
+                int next = edge.getValue();
+                int fallback = fail[state];
+                while (fallback != 0 && !goTo[fallback].containsKey(edge.getKey())) {
+                    fallback = fail[fallback];
+                }
+                Integer target = goTo[fallback].get(edge.getKey());
+                fail[next] = target != null && target != next ? target : 0;
+                matches[next] = merge(matches[next], matches[fail[next]]);
+                queue.add(next);
+            }
+        }
+
+        // each state keeps its edges as sorted parallel arrays so a step is a binary search without boxing
+        this.labels = new char[states][];
+        this.targets = new int[states][];
+        for (int state = 0; state < states; state++) {
+            Character[] keys = goTo[state].keySet().toArray(new Character[0]);
+            Arrays.sort(keys);
+            labels[state] = new char[keys.length];
+            targets[state] = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                labels[state][i] = keys[i];
+                targets[state][i] = goTo[state].get(keys[i]);
+            }
+        }
+        this.failure = fail;
+        this.outputs = Arrays.copyOf(matches, states);
+    }
+
+    // sets the bit of every keyword that occurs in the text, the empty keyword always matches
+    public void match(String text, BitSet found) {
+        int state = 0;
+        emit(state, found);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next;
+            while ((next = step(state, c)) < 0 && state != 0) {
+                state = failure[state];
+            }
+            state = Math.max(next, 0);
+            emit(state, found);
+        }
+    }
+
+    private int step(int state, char c) {
+        int index = Arrays.binarySearch(labels[state], c);
+        return index < 0 ? -1 : targets[state][index];
+    }
+
+    private void emit(int state, BitSet found) {
+        int[] keywords = outputs[state];
+        if (keywords != null) {
+            for (int keyword : keywords) {
+                found.set(keyword);
+            }
+        }
+    }
+
+    private static int[] append(int[] values, int value) {
+        if (values == null) {
+            return new int[] { value };
+        }
+        int[] result = Arrays.copyOf(values, values.length + 1);
+        result[values.length] = value;
+        return result;
+    }
+
+    private static int[] merge(int[] first, int[] second) {
+        if (second == null) {
+            return first;
+        }
+        if (first == null) {
+            return second;
+        }
+        int[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
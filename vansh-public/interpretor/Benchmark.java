@@ -0,0 +1,70 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        Expression isMale = Main.getMaleExpression();
+        Expression isMarriedWoman = Main.getMarriedWomanExpression();
+        Expression both = new OrExpression(isMale, isMarriedWoman);
+
+        measure("Expression.interpret or", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(isMale.interpret("John") ? 1 : 0);
+            }
+        });
+        measure("Expression.interpret and", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(isMarriedWoman.interpret("Married Julie") ? 1 : 0);
+            }
+        });
+        measure("Expression.interpret nested miss", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(both.interpret("Single Alice") ? 1 : 0);
+            }
+        });
+
+        Expression compiled = CompiledExpression.compile(both);
+        measure("CompiledExpression.interpret nested miss", OPERATIONS, () -> {
+            for (int i = 0; i < OPERATIONS; i++) {
+                consume(compiled.interpret("Single Alice") ? 1 : 0);
+            }
+        });
+
+        Expression wide = new TerminalExpression("keyword0");
+        for (int k = 1; k < 200; k++) {
+            wide = new OrExpression(wide, new TerminalExpression("keyword" + k));
+        }
+        Expression wideRules = wide;
+        Expression wideCompiled = CompiledExpression.compile(wide);
+        String context = "a context string that mentions none of the configured terminals at all";
+        measure("Expression.interpret 200 terminals", OPERATIONS / 100, () -> {
+            for (int i = 0; i < OPERATIONS / 100; i++) {
+                consume(wideRules.interpret(context) ? 1 : 0);
+            }
+        });
+        measure("CompiledExpression.interpret 200 terminals", OPERATIONS / 100, () -> {
+            for (int i = 0; i < OPERATIONS / 100; i++) {
+                consume(wideCompiled.interpret(context) ? 1 : 0);
+            }
+        });
+
+        Expression married = new TerminalExpression("Married");
+        Expression shared = new AndExpression(new OrExpression(wide, married), new OrExpression(married, wide));
+        Expression adaptive = AdaptiveExpression.of(shared);
+        String marriedContext = "Married Julie";
+        measure("Expression.interpret shared subterms", OPERATIONS / 100, () -> {
+            for (int i = 0; i < OPERATIONS / 100; i++) {
+                consume(shared.interpret(marriedContext) ? 1 : 0);
+            }
+        });
+        measure("AdaptiveExpression.interpret shared subterms", OPERATIONS / 100, () -> {
+            for (int i = 0; i < OPERATIONS / 100; i++) {
+                consume(adaptive.interpret(marriedContext) ? 1 : 0);
+            }
+        });
+    }
+}
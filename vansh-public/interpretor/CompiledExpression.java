@@ -0,0 +1,116 @@
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// an expression tree flattened into a postfix program, all terminals are found by one
+// Aho-Corasick scan of the context and the program then runs on a boolean stack without recursion
+public class CompiledExpression implements Expression {
+
+    private static final byte TERMINAL = 0;
+    private static final byte AND = 1;
+    private static final byte OR = 2;
+    private static final byte NOT = 3;
+    private static final byte OPAQUE = 4;
+
+    private final byte[] ops;
+    private final int[] args;
+    private final int maxDepth;
+    private final int keywordCount;
+    private final AhoCorasick automaton;
+    private final Expression[] opaque;
+
+    private CompiledExpression(byte[] ops, int[] args, int maxDepth, List<String> keywords, List<Expression> opaque) {
+        this.ops = ops;
+        this.args = args;
+        this.maxDepth = maxDepth;
+        this.keywordCount = keywords.size();
+        this.automaton = new AhoCorasick(keywords);
+        this.opaque = opaque.toArray(new Expression[0]);
+    }
+
+    public static CompiledExpression compile(Expression expression) {
+        Compiler compiler = new Compiler();
+        compiler.emit(expression);
+        byte[] ops = new byte[compiler.ops.size()];
+        int[] args = new int[ops.length];
+        int depth = 0;
+        int maxDepth = 0;
+        for (int i = 0; i < ops.length; i++) {
+            ops[i] = compiler.ops.get(i);
+            args[i] = compiler.args.get(i);
+            if (ops[i] == AND || ops[i] == OR) {
+                depth--;
+            } else if (ops[i] != NOT) {
+                depth++;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+        }
+        return new CompiledExpression(ops, args, maxDepth, compiler.keywords, compiler.opaque);
+    }
+
+    @Override
+    public boolean interpret(String context) {
+        BitSet found = new BitSet(keywordCount);
+        automaton.match(context, found);
+        boolean[] stack = new boolean[maxDepth];
+        int top = -1;
+        for (int pc = 0; pc < ops.length; pc++) {
+            switch (ops[pc]) {
+                case TERMINAL -> stack[++top] = found.get(args[pc]);
+                case AND -> {
+                    top--;
+                    stack[top] = stack[top] && stack[top + 1];
+                }
+                case OR -> {
+                    top--;
+                    stack[top] = stack[top] || stack[top + 1];
+                }
+                case NOT -> stack[top] = !stack[top];
+                default -> stack[++top] = opaque[args[pc]].interpret(context);
+            }
+        }
+        return stack[0];
+    }
+
+    private static final class Compiler {
+        private final List<Byte> ops = new ArrayList<>();
+        private final List<Integer> args = new ArrayList<>();
+        private final List<String> keywords = new ArrayList<>();
+        private final Map<String, Integer> keywordIndex = new HashMap<>();
+        private final List<Expression> opaque = new ArrayList<>();
+
+        // expressions it does not know are kept as opaque leaves and interpreted as before
+        private void emit(Expression expression) {
+            if (expression instanceof TerminalExpression terminal) {
+                add(TERMINAL, keywordIndex.computeIfAbsent(terminal.getData(), keyword -> {
+                    keywords.add(keyword);
+                    return keywords.size() - 1;
+                }));
+            } else if (expression instanceof AndExpression and) {
+                emit(and.getExpr1());
+                emit(and.getExpr2());
+                add(AND, 0);
+            } else if (expression instanceof OrExpression or) {
+                emit(or.getExpr1());
+                emit(or.getExpr2());
+                add(OR, 0);
+            } else if (expression instanceof NotExpression not) {
+                emit(not.getExpr());
+                add(NOT, 0);
+            } else if (expression instanceof CompiledExpression) {
+                throw new IllegalArgumentException("Expression is already compiled");
+            } else {
+                opaque.add(expression);
+                add(OPAQUE, opaque.size() - 1);
+            }
+        }
+
+        private void add(byte op, int arg) {
+            ops.add(op);
+            args.add(arg);
+        }
+    }
+}
@@ -19,5 +19,8 @@ public class Main {
         System.out.println("John is male? " + isMale.interpret("John"));
         System.out.println("Julie is a married women? " + isMarriedWoman.interpret("Married Julie"));
 
+        RuleCache rules = new RuleCache(100);
+        System.out.println("John is an unmarried man? " + rules.get("(Robert | John) & !Married").interpret("John"));
+
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+public class NotExpression implements Expression {
+    private Expression expr = null;
+    
+    public NotExpression(Expression expr) {
+        this.expr = expr;
+    }
+    
+    public Expression getExpr() {
+        return expr;
+    }
+    
+    @Override
+    public boolean interpret(String context) {
+        return !expr.interpret(context);
+    }
+    
+}
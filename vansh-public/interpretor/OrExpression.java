@@ -7,6 +7,14 @@ public class OrExpression implements Expression {
         this.expr2 = expr2;
     }
     
+    public Expression getExpr1() {
+        return expr1;
+    }
+
+    public Expression getExpr2() {
+        return expr2;
+    }
+    
     @Override
     public boolean interpret(String context) {
         return expr1.interpret(context) || expr2.interpret(context);
@@ -0,0 +1,39 @@
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// bounded LRU cache of parsed and compiled rules keyed by the rule text
+public class RuleCache {
+
+    private final Map<String, Expression> rules;
+
+    public RuleCache(int maxSize) {
+        this.rules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public Expression get(String rule) {
+        synchronized (rules) {
+            Expression expression = rules.get(rule);
+            if (expression != null) {
+                return expression;
+            }
+        }
+        // parsing happens outside the lock, two threads missing on the same rule may both compile it
+        Expression expression = CompiledExpression.compile(RuleParser.parse(rule));
+        synchronized (rules) {
+            Expression existing = rules.putIfAbsent(rule, expression);
+            return existing != null ? existing : expression;
+        }
+    }
+
+    public int size() {
+        synchronized (rules) {
+            return rules.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+// parses rules like (Robert | John) & !Married, ! binds tighter than & which binds tighter than |,
+// a terminal is a run of other characters or a "quoted" string that may contain spaces
+public class RuleParser {
+
+    private final String rule;
+    private int position;
+
+    private RuleParser(String rule) {
+        this.rule = rule;
+    }
+
+    public static Expression parse(String rule) {
+        RuleParser parser = new RuleParser(rule);
+        Expression expression = parser.parseOr();
+        parser.skipWhitespace();
+        if (parser.position < rule.length()) {
+            throw parser.error("Unexpected '" + rule.charAt(parser.position) + "'");
+        }
+        return expression;
+    }
+
+    private Expression parseOr() {
+        Expression expression = parseAnd();
+        while (consume('|')) {
+            expression = new OrExpression(expression, parseAnd());
+        }
+        return expression;
+    }
+
+    private Expression parseAnd() {
+        Expression expression = parseUnary();
+        while (consume('&')) {
+            expression = new AndExpression(expression, parseUnary());
+        }
+        return expression;
+    }
+
+    private Expression parseUnary() {
+        if (consume('!')) {
+            return new NotExpression(parseUnary());
+        }
+        if (consume('(')) {
+            Expression expression = parseOr();
+            if (!consume(')')) {
+                throw error("Expected ')'");
+            }
+            return expression;
+        }
+        return new TerminalExpression(parseTerminal());
+    }
+
+    private String parseTerminal() {
+        skipWhitespace();
+        if (position < rule.length() && rule.charAt(position) == '"') {
+            int end = rule.indexOf('"', position + 1);
+            if (end < 0) {
+                throw error("Unterminated quoted terminal");
+            }
+            String terminal = rule.substring(position + 1, end);
+            position = end + 1;
+            return terminal;
+        }
+        int start = position;
+        while (position < rule.length() && !isSpecial(rule.charAt(position))) {
+            position++;
+        }
+        if (start == position) {
+            throw error(position < rule.length() ? "Unexpected '" + rule.charAt(position) + "'" : "Unexpected end of rule");
+        }
+        return rule.substring(start, position);
+    }
+
+    private boolean consume(char expected) {
+        skipWhitespace();
+        if (position < rule.length() && rule.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (position < rule.length() && Character.isWhitespace(rule.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isSpecial(char c) {
+        return c == '|' || c == '&' || c == '!' || c == '(' || c == ')' || c == '"' || Character.isWhitespace(c);
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position + " in rule: " + rule);
+    }
+}
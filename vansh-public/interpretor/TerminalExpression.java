@@ -5,6 +5,10 @@ public class TerminalExpression implements Expression {
         this.data = data;
     }
     
+    public String getData() {
+        return data;
+    }
+    
     @Override
     public boolean interpret(String context) {
         return context.contains(data);
@@ -0,0 +1,99 @@
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// collects messages for a short window and hands every user one batch of read-only views over
+// payloads that are encoded once and shared by all recipients
+public class BatchingChatMediator implements ChatMediator, AutoCloseable {
+
+    private final List<User> users = new CopyOnWriteArrayList<>();
+    private final int maxBatchSize;
+    private final long windowMicros;
+    private final ScheduledExecutorService timer;
+    private final Object deliveryLock = new Object();
+    private List<Message> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    public BatchingChatMediator(int maxBatchSize, long windowMicros) {
+        this.maxBatchSize = maxBatchSize;
+        this.windowMicros = windowMicros;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "chat-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void addUser(User user) {
+        this.users.add(user);
+    }
+
+    @Override
+    public void sendMessage(String message, User user) {
+        Message batched = new Message(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer(), user);
+        boolean full;
+        synchronized (this) {
+            pending.add(batched);
+            full = pending.size() >= maxBatchSize;
+            if (!full && !flushScheduled) {
+                flushScheduled = true;
+                timer.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        synchronized (deliveryLock) {
+            List<Message> batch;
+            synchronized (this) {
+                batch = pending;
+                pending = new ArrayList<>();
+                flushScheduled = false;
+            }
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        timer.shutdown();
+    }
+
+    private void deliver(List<Message> batch) {
+        for (User u : this.users) {
+            List<ByteBuffer> received = new ArrayList<>(batch.size());
+            for (Message message : batch) {
+                //message should not be received by the user sending it
+                if (message.sender != u) {
+                    received.add(message.payload.duplicate());
+                }
+            }
+            if (!received.isEmpty()) {
+                u.receiveBatch(received);
+            }
+        }
+    }
+
+    private static final class Message {
+        private final ByteBuffer payload;
+        private final User sender;
+
+        private Message(ByteBuffer payload, User sender) {
+            this.payload = payload;
+            this.sender = sender;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 10_000;
+
+    public static void main(String[] args) {
+        for (int users : new int[] { 10, 100, 1000 }) {
+            ChatMediator mediator = new ChatMediatorImpl();
+            User sender = null;
+            for (int i = 0; i < users; i++) {
+                User user = new User(mediator, "user" + i) {
+                    @Override
+                    public void send(String msg) {
+                        mediator.sendMessage(msg, this);
+                    }
+
+                    @Override
+                    public void receive(String msg) {
+                        consume(msg.length());
+                    }
+                };
+                mediator.addUser(user);
+                sender = user;
+            }
+            User from = sender;
+            measure("ChatMediatorImpl.sendMessage " + users + " users", OPERATIONS, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    mediator.sendMessage("Hi All", from);
+                }
+            });
+        }
+    }
+}
@@ -1,12 +1,24 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatMediatorImpl implements ChatMediator {
     private List<User> users;
+    private final Map<User, TokenBucket> rateLimits = new ConcurrentHashMap<>();
+    private final double messagesPerSecond;
+    private final int burst;
   
     public ChatMediatorImpl(){
+        this(Double.POSITIVE_INFINITY, Integer.MAX_VALUE);
+    }
+
+    // every user may send messagesPerSecond on average and up to burst at once, the rest is dropped
+    public ChatMediatorImpl(double messagesPerSecond, int burst){
         this.users=new ArrayList<>();
+        this.messagesPerSecond=messagesPerSecond;
+        this.burst=burst;
     }
   
     @Override
@@ -16,6 +28,9 @@ public class ChatMediatorImpl implements ChatMediator {
   
     @Override
     public void sendMessage(String message, User user) {
+        if(!isAllowed(user)){
+            return;
+        }
         for(User u : this.users){
             //message should not be received by the user sending it
             if(u != user){
@@ -23,5 +38,12 @@ public class ChatMediatorImpl implements ChatMediator {
             }
         }
     }
+
+    private boolean isAllowed(User user) {
+        if(Double.isInfinite(this.messagesPerSecond)){
+            return true;
+        }
+        return this.rateLimits.computeIfAbsent(user, key -> new TokenBucket(this.messagesPerSecond, this.burst)).tryAcquire();
+    }
     
 }
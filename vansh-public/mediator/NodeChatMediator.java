@@ -0,0 +1,258 @@
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// one node of a chat spread over several processes, each node delivers to its own users and forwards
+// every message to the nodes it is connected to as a frame of an int length followed by the UTF-8 message,
+// frames are not forwarded again so the nodes should be connected to each other in a full mesh
+public class NodeChatMediator implements ChatMediator, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private final List<User> users = new CopyOnWriteArrayList<>();
+    private final List<Peer> peers = new CopyOnWriteArrayList<>();
+    private final Queue<SocketChannel> pendingConnections = new ConcurrentLinkedQueue<>();
+    private final Queue<Peer> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread ioThread;
+    private volatile boolean running = true;
+
+    public NodeChatMediator(int port) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        this.server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        this.server.configureBlocking(false);
+        this.server.register(selector, SelectionKey.OP_ACCEPT);
+        this.ioThread = new Thread(this::run, "chat-node-io");
+        this.ioThread.setDaemon(true);
+        this.ioThread.start();
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    public void connect(int port) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.configureBlocking(false);
+        pendingConnections.add(channel);
+        selector.wakeup();
+    }
+
+    @Override
+    public void addUser(User user) {
+        this.users.add(user);
+    }
+
+    @Override
+    public void sendMessage(String message, User user) {
+        byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Message is larger than " + MAX_FRAME_SIZE + " bytes");
+        }
+        deliver(message, user);
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+        frame.putInt(bytes.length).put(bytes).flip();
+        for (Peer peer : peers) {
+            peer.enqueue(frame.asReadOnlyBuffer());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Peer peer : peers) {
+            peer.channel.close();
+        }
+        server.close();
+        selector.close();
+    }
+
+    private void deliver(String message, User sender) {
+        for (User u : this.users) {
+            //message should not be received by the user sending it
+            if (u != sender) {
+                try {
+                    u.receive(message);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                selector.select();
+                SocketChannel connected;
+                while ((connected = pendingConnections.poll()) != null) {
+                    register(connected);
+                }
+                Peer writer;
+                while ((writer = pendingWrites.poll()) != null) {
+                    if (writer.key.isValid()) {
+                        writer.key.interestOps(writer.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    try {
+                        handle(key);
+                    } catch (IOException | RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                selector.selectedKeys().clear();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) throws IOException {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            SocketChannel accepted = server.accept();
+            if (accepted != null) {
+                accepted.configureBlocking(false);
+                register(accepted);
+            }
+            return;
+        }
+        Peer peer = (Peer) key.attachment();
+        try {
+            if (key.isReadable()) {
+                peer.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                peer.write();
+            }
+        } catch (IOException | RuntimeException e) {
+            // a broken or misbehaving peer is dropped without taking the other connections with it
+            peers.remove(peer);
+            key.cancel();
+            peer.channel.close();
+        }
+    }
+
+    private void register(SocketChannel channel) throws IOException {
+        Peer peer = new Peer(channel);
+        peer.key = channel.register(selector, SelectionKey.OP_READ, peer);
+        peers.add(peer);
+    }
+
+    private final class Peer {
+        private final SocketChannel channel;
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writeRequested = new AtomicBoolean();
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private ByteBuffer readBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private ByteBuffer partial;
+        private SelectionKey key;
+
+        private Peer(SocketChannel channel) {
+            this.channel = channel;
+            this.writeBuffer.flip();
+        }
+
+        private void enqueue(ByteBuffer frame) {
+            outbound.add(frame);
+            if (writeRequested.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                throw new IOException("Peer closed the connection");
+            }
+            readBuffer.flip();
+            while (readBuffer.remaining() >= Integer.BYTES) {
+                int length = readBuffer.getInt(readBuffer.position());
+                if (length < 0 || length > MAX_FRAME_SIZE) {
+                    throw new IOException("Invalid frame length " + length);
+                }
+                if (readBuffer.remaining() < Integer.BYTES + length) {
+                    break;
+                }
+                readBuffer.position(readBuffer.position() + Integer.BYTES);
+                byte[] bytes = new byte[length];
+                readBuffer.get(bytes);
+                deliver(new String(bytes, StandardCharsets.UTF_8), null);
+            }
+            readBuffer.compact();
+            if (readBuffer.remaining() == 0) {
+                // frame lengths are checked above so the buffer never has to outgrow the largest frame
+                ByteBuffer larger = ByteBuffer.allocate(
+                        Math.min(readBuffer.capacity() * 2, Integer.BYTES + MAX_FRAME_SIZE));
+                readBuffer.flip();
+                readBuffer = larger.put(readBuffer);
+            }
+        }
+
+        // packs as many queued frames as fit into one buffer so a burst costs a single write call
+        private void write() throws IOException {
+            writeRequested.set(false);
+            while (true) {
+                if (!writeBuffer.hasRemaining()) {
+                    writeBuffer.clear();
+                    fill();
+                    writeBuffer.flip();
+                    if (!writeBuffer.hasRemaining()) {
+                        break;
+                    }
+                }
+                channel.write(writeBuffer);
+                if (writeBuffer.hasRemaining()) {
+                    return;
+                }
+            }
+            key.interestOps(SelectionKey.OP_READ);
+            if (!outbound.isEmpty() && writeRequested.compareAndSet(false, true)) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        private void fill() {
+            while (writeBuffer.hasRemaining()) {
+                if (partial == null) {
+                    partial = outbound.poll();
+                    if (partial == null) {
+                        return;
+                    }
+                }
+                int count = Math.min(partial.remaining(), writeBuffer.remaining());
+                ByteBuffer slice = partial.duplicate();
+                slice.limit(slice.position() + count);
+                writeBuffer.put(slice);
+                partial.position(partial.position() + count);
+                if (!partial.hasRemaining()) {
+                    partial = null;
+                }
+            }
+        }
+    }
+}
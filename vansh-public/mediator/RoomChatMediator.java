@@ -0,0 +1,179 @@
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RoomChatMediator implements ChatMediator, AutoCloseable {
+
+    public static final String LOBBY = "lobby";
+
+    private final Map<String, Set<User>> rooms = new ConcurrentHashMap<>();
+    private final Map<User, Set<String>> memberships = new ConcurrentHashMap<>();
+    private final Map<User, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final Map<User, TokenBucket> rateLimits = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final double messagesPerSecond;
+    private final int burst;
+    private final int highWatermark;
+    private final long maxBlockMillis;
+
+    public RoomChatMediator() {
+        this(Executors.newCachedThreadPool());
+    }
+
+    public RoomChatMediator(ExecutorService executor) {
+        this(executor, Double.POSITIVE_INFINITY, Integer.MAX_VALUE, Integer.MAX_VALUE, 0);
+    }
+
+    // senders are rate limited per user, and a sender posting to mailboxes at their high watermark waits
+    // up to maxBlockMillis in total per message for recipients to catch up, once that time is spent the
+    // copies for any other full mailboxes are dropped straight away
+    public RoomChatMediator(ExecutorService executor, double messagesPerSecond, int burst, int highWatermark,
+            long maxBlockMillis) {
+        this.executor = executor;
+        this.messagesPerSecond = messagesPerSecond;
+        this.burst = burst;
+        this.highWatermark = highWatermark;
+        this.maxBlockMillis = maxBlockMillis;
+    }
+
+    @Override
+    public void addUser(User user) {
+        join(LOBBY, user);
+    }
+
+    public void join(String room, User user) {
+        mailboxes.computeIfAbsent(user, Mailbox::new);
+        memberships.computeIfAbsent(user, key -> ConcurrentHashMap.newKeySet()).add(room);
+        rooms.computeIfAbsent(room, key -> ConcurrentHashMap.newKeySet()).add(user);
+    }
+
+    public void leave(String room, User user) {
+        Set<User> members = rooms.get(room);
+        if (members != null) {
+            members.remove(user);
+        }
+        Set<String> userRooms = memberships.get(user);
+        if (userRooms != null) {
+            userRooms.remove(room);
+        }
+    }
+
+    // without a room the message goes once to everyone sharing a room with the sender
+    @Override
+    public void sendMessage(String message, User user) {
+        Set<String> userRooms = memberships.get(user);
+        if (userRooms == null || !isAllowed(user)) {
+            return;
+        }
+        Set<User> recipients = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String room : userRooms) {
+            Set<User> members = rooms.get(room);
+            if (members != null) {
+                recipients.addAll(members);
+            }
+        }
+        long deadline = deadline();
+        for (User u : recipients) {
+            if (u != user) {
+                mailboxes.get(u).post(message, deadline);
+            }
+        }
+    }
+
+    public void sendMessage(String room, String message, User user) {
+        Set<User> members = rooms.get(room);
+        if (members == null || !isAllowed(user)) {
+            return;
+        }
+        long deadline = deadline();
+        for (User u : members) {
+            //message should not be received by the user sending it
+            if (u != user) {
+                mailboxes.get(u).post(message, deadline);
+            }
+        }
+    }
+
+    public long getDropped() {
+        long dropped = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            dropped += mailbox.dropped.sum();
+        }
+        return dropped;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBlockMillis);
+    }
+
+    private boolean isAllowed(User user) {
+        if (Double.isInfinite(messagesPerSecond)) {
+            return true;
+        }
+        return rateLimits.computeIfAbsent(user, key -> new TokenBucket(messagesPerSecond, burst)).tryAcquire();
+    }
+
+    private final class Mailbox implements Runnable {
+        private final User user;
+        private final Queue<String> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Semaphore capacity = new Semaphore(highWatermark);
+        private final LongAdder dropped = new LongAdder();
+
+        private Mailbox(User user) {
+            this.user = user;
+        }
+
+        private void post(String message, long deadline) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                if (!capacity.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+                    dropped.increment();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.increment();
+                return;
+            }
+            messages.add(message);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        // a single drain per mailbox at a time keeps every user's messages in order
+        @Override
+        public void run() {
+            do {
+                String message;
+                while ((message = messages.poll()) != null) {
+                    try {
+                        user.receive(message);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    } finally {
+                        capacity.release();
+                    }
+                }
+                scheduled.set(false);
+            } while (!messages.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// lock-free token bucket kept as the theoretical arrival time of the next permit (GCRA),
+// so taking a permit is a single compare-and-set
+public class TokenBucket {
+
+    private final long nanosPerPermit;
+    private final long burstNanos;
+    private final AtomicLong nextFree;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.nanosPerPermit = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstNanos = this.nanosPerPermit * burst;
+        this.nextFree = new AtomicLong(System.nanoTime() - this.burstNanos);
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long current = nextFree.get();
+            long next = Math.max(current, now - burstNanos) + nanosPerPermit;
+            if (next - now > 0) {
+                return false;
+            }
+            if (nextFree.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -1,3 +1,7 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
 public abstract class User {
     protected ChatMediator mediator;
     protected String name;
@@ -10,4 +14,10 @@ public abstract class User {
     public abstract void send(String msg);
      
     public abstract void receive(String msg);
+
+    public void receiveBatch(List<ByteBuffer> msgs) {
+        for (ByteBuffer msg : msgs) {
+            receive(StandardCharsets.UTF_8.decode(msg).toString());
+        }
+    }
 }
\ No newline at end of file
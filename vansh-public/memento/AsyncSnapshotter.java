@@ -0,0 +1,71 @@
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+// the editing thread only grabs the current memento, which shares the immutable state, while compressing it
+// and handing it to the CareTaker happen on one background thread in capture order
+public class AsyncSnapshotter implements AutoCloseable {
+
+    private final CareTaker careTaker;
+    private final Semaphore pending;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "memento-snapshotter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AsyncSnapshotter(CareTaker careTaker, int maxPending) {
+        this.careTaker = careTaker;
+        this.pending = new Semaphore(maxPending);
+    }
+
+    public void capture(Originator originator) throws InterruptedException {
+        capture(originator.saveStateToMemento());
+    }
+
+    public void capture(RopeOriginator originator) throws InterruptedException {
+        capture(originator.saveStateToMemento());
+    }
+
+    // blocks only when maxPending snapshots are still waiting to be stored
+    public void capture(Memento memento) throws InterruptedException {
+        pending.acquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    careTaker.add(new CompressedMemento(memento.getState()));
+                } catch (RuntimeException | Error e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.release();
+            throw e;
+        }
+    }
+
+    // waits until every snapshot captured so far is in the CareTaker, and throws the first failure to store
+    // one since the last flush so a lost snapshot does not go unnoticed
+    public void flush() {
+        CompletableFuture.runAsync(() -> { }, executor).join();
+        Throwable first = failure.getAndSet(null);
+        if (first != null) {
+            throw new IllegalStateException("A snapshot could not be stored", first);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
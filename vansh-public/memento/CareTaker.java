@@ -5,13 +5,35 @@ import java.util.List;
 public class CareTaker {
     
     private List<Memento> mementoList = new ArrayList<>();
+
+    private final MementoJournal journal;
+
+    public CareTaker() {
+        this(null);
+    }
+
+    // journal mode, mementos are written to the journal and read back from it, so they survive a restart
+    public CareTaker(MementoJournal journal) {
+        this.journal = journal;
+    }
     
-    public void add(Memento state) {
+    public synchronized void add(Memento state) {
+        if (journal != null) {
+            journal.append(state.getState());
+            return;
+        }
         mementoList.add(state);
     }
     
-    public Memento get(int index) {
+    public synchronized Memento get(int index) {
+        if (journal != null) {
+            return new Memento(journal.get(index));
+        }
         return mementoList.get(index);
     }
 
-}
\ No newline at end of file
+    public synchronized int size() {
+        return journal != null ? journal.size() : mementoList.size();
+    }
+
+}
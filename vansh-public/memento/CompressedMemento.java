@@ -0,0 +1,53 @@
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class CompressedMemento extends Memento {
+    private final byte[] compressed;
+    private final int length;
+
+    public CompressedMemento(String state) {
+        super(null);
+        if (state == null) {
+            this.compressed = null;
+            this.length = -1;
+            return;
+        }
+        byte[] bytes = state.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        this.compressed = out.toByteArray();
+        this.length = bytes.length;
+    }
+
+    @Override
+    public String getState() {
+        if (this.compressed == null) {
+            return null;
+        }
+        Inflater inflater = new Inflater();
+        inflater.setInput(this.compressed);
+        byte[] bytes = new byte[this.length];
+        try {
+            int read = 0;
+            while (read < bytes.length && !inflater.finished()) {
+                read += inflater.inflate(bytes, read, bytes.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed memento", e);
+        } finally {
+            inflater.end();
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
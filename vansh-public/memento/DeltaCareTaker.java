@@ -0,0 +1,131 @@
+
+import java.util.ArrayList;
+import java.util.List;
+
+// keeps a full keyframe every few saves and, between them, only the span that changed since the previous
+// save, once the estimated size passes the byte budget the oldest saves are evicted first
+public class DeltaCareTaker {
+
+    private static final int ENTRY_OVERHEAD = 48;
+
+    private final int keyframeInterval;
+    private final long byteBudget;
+    private final List<Entry> entries = new ArrayList<>();
+    private int firstIndex;
+    private int sinceKeyframe;
+    private long bytes;
+    private String lastState;
+
+    public DeltaCareTaker(int keyframeInterval, long byteBudget) {
+        this.keyframeInterval = keyframeInterval;
+        this.byteBudget = byteBudget;
+    }
+
+    public void add(Memento state) {
+        String current = state.getState();
+        Entry entry = null;
+        if (lastState != null && current != null && sinceKeyframe < keyframeInterval - 1) {
+            entry = Entry.delta(lastState, current);
+            if (entry.size() >= Entry.keyframe(current).size()) {
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            entry = Entry.keyframe(current);
+            sinceKeyframe = 0;
+        } else {
+            sinceKeyframe++;
+        }
+        entries.add(entry);
+        bytes += entry.size();
+        lastState = current;
+        evict();
+    }
+
+    public Memento get(int index) {
+        if (index < firstIndex || index >= firstIndex + entries.size()) {
+            throw new IndexOutOfBoundsException("Memento " + index + " is not in the history [" + firstIndex + ", "
+                    + (firstIndex + entries.size()) + ")");
+        }
+        return new Memento(stateAt(index - firstIndex));
+    }
+
+    public int firstIndex() {
+        return firstIndex;
+    }
+
+    public int size() {
+        return firstIndex + entries.size();
+    }
+
+    public long bytes() {
+        return bytes;
+    }
+
+    private String stateAt(int position) {
+        int keyframe = position;
+        while (!entries.get(keyframe).isKeyframe()) {
+            keyframe--;
+        }
+        String state = entries.get(keyframe).middle;
+        for (int i = keyframe + 1; i <= position; i++) {
+            state = entries.get(i).apply(state);
+        }
+        return state;
+    }
+
+    private void evict() {
+        while (bytes > byteBudget && entries.size() > 1) {
+            if (!entries.get(1).isKeyframe()) {
+                Entry promoted = Entry.keyframe(stateAt(1));
+                bytes += promoted.size() - entries.get(1).size();
+                entries.set(1, promoted);
+            }
+            bytes -= entries.remove(0).size();
+            firstIndex++;
+        }
+    }
+
+    // a keyframe stores the whole state in middle, a delta keeps prefix and suffix of the previous state
+    private static final class Entry {
+        private final int prefix;
+        private final int suffix;
+        private final String middle;
+
+        private Entry(int prefix, int suffix, String middle) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.middle = middle;
+        }
+
+        private static Entry keyframe(String state) {
+            return new Entry(-1, -1, state);
+        }
+
+        private static Entry delta(String previous, String current) {
+            int max = Math.min(previous.length(), current.length());
+            int prefix = 0;
+            while (prefix < max && previous.charAt(prefix) == current.charAt(prefix)) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < max - prefix
+                    && previous.charAt(previous.length() - 1 - suffix) == current.charAt(current.length() - 1 - suffix)) {
+                suffix++;
+            }
+            return new Entry(prefix, suffix, current.substring(prefix, current.length() - suffix));
+        }
+
+        private boolean isKeyframe() {
+            return prefix < 0;
+        }
+
+        private String apply(String previous) {
+            return previous.substring(0, prefix) + middle + previous.substring(previous.length() - suffix);
+        }
+
+        private long size() {
+            return ENTRY_OVERHEAD + (middle == null ? 0 : 2L * middle.length());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// append-only journal of memento states in a memory-mapped data file plus a mapped index of record offsets,
+// the index starts with the record count which is written last so a torn append is ignored on restart
+public class MementoJournal implements AutoCloseable {
+
+    private static final int INITIAL_SIZE = 1024 * 1024;
+    private static final int HEADER = Long.BYTES;
+
+    private final FileChannel dataChannel;
+    private final FileChannel indexChannel;
+    private MappedByteBuffer data;
+    private MappedByteBuffer index;
+    private int count;
+    private long dataEnd;
+
+    public MementoJournal(Path dataFile, Path indexFile) throws IOException {
+        this.dataChannel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(dataChannel.size(), INITIAL_SIZE));
+        this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(indexChannel.size(), INITIAL_SIZE));
+        this.count = (int) index.getLong(0);
+        if (count > 0) {
+            long last = index.getLong(HEADER + (count - 1) * Long.BYTES);
+            int length = data.getInt((int) last);
+            dataEnd = last + Integer.BYTES + Math.max(length, 0);
+        }
+    }
+
+    public synchronized int append(String state) {
+        byte[] bytes = state == null ? null : state.getBytes(StandardCharsets.UTF_8);
+        int recordSize = Integer.BYTES + (bytes == null ? 0 : bytes.length);
+        ensureData(dataEnd + recordSize);
+        ensureIndex(HEADER + (count + 1L) * Long.BYTES);
+        int position = (int) dataEnd;
+        data.putInt(position, bytes == null ? -1 : bytes.length);
+        if (bytes != null) {
+            data.put(position + Integer.BYTES, bytes);
+        }
+        index.putLong(HEADER + count * Long.BYTES, dataEnd);
+        dataEnd += recordSize;
+        index.putLong(0, ++count);
+        return count - 1;
+    }
+
+    public synchronized String get(int record) {
+        if (record < 0 || record >= count) {
+            throw new IndexOutOfBoundsException("Journal has no memento " + record);
+        }
+        int position = (int) index.getLong(HEADER + record * Long.BYTES);
+        int length = data.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        data.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized void flush() {
+        data.force();
+        index.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        dataChannel.close();
+        indexChannel.close();
+    }
+
+    private void ensureData(long size) {
+        if (size > data.capacity()) {
+            data = remap(dataChannel, data.capacity(), size);
+        }
+    }
+
+    private void ensureIndex(long size) {
+        if (size > index.capacity()) {
+            index = remap(indexChannel, index.capacity(), size);
+        }
+    }
+
+    private static MappedByteBuffer remap(FileChannel channel, long capacity, long required) {
+        long newCapacity = capacity;
+        while (newCapacity < required) {
+            newCapacity *= 2;
+        }
+        if (newCapacity > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Memento journal cannot grow past 2 GB");
+        }
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+
+
+// immutable rope, edits return a new rope sharing every untouched subtree with the old one
+public abstract class Rope {
+
+    private static final int LEAF_SIZE = 512;
+
+    public static final Rope EMPTY = new Leaf("");
+
+    public static Rope of(String text) {
+        if (text.length() <= LEAF_SIZE) {
+            return new Leaf(text);
+        }
+        int mid = text.length() / 2;
+        return new Node(of(text.substring(0, mid)), of(text.substring(mid)));
+    }
+
+    public abstract int length();
+
+    public abstract char charAt(int index);
+
+    abstract int depth();
+
+    abstract void appendTo(StringBuilder builder);
+
+    abstract Rope[] split(int index);
+
+    public Rope insert(int index, String text) {
+        checkIndex(index);
+        Rope[] parts = split(index);
+        return concat(concat(parts[0], of(text)), parts[1]);
+    }
+
+    public Rope delete(int from, int to) {
+        checkIndex(from);
+        checkIndex(to);
+        if (from > to) {
+            throw new IndexOutOfBoundsException("Cannot delete from " + from + " to " + to);
+        }
+        Rope[] head = split(from);
+        Rope[] tail = head[1].split(to - from);
+        return concat(head[0], tail[1]);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(length());
+        appendTo(builder);
+        return builder.toString();
+    }
+
+    // height balanced like an AVL tree, so a split or an edit only rebuilds the nodes along its path and every
+    // other subtree stays shared with earlier snapshots
+    static Rope concat(Rope left, Rope right) {
+        if (left.length() == 0) {
+            return right;
+        }
+        if (right.length() == 0) {
+            return left;
+        }
+        if (left.length() + right.length() <= LEAF_SIZE) {
+            return new Leaf(left.toString() + right);
+        }
+        if (left.depth() > right.depth() + 1) {
+            return joinRight((Node) left, right);
+        }
+        if (right.depth() > left.depth() + 1) {
+            return joinLeft(left, (Node) right);
+        }
+        return new Node(left, right);
+    }
+
+    // walks down the right spine of the taller rope to a subtree of about the shorter one's height
+    private static Rope joinRight(Node left, Rope right) {
+        Rope inner = left.right;
+        if (inner.depth() <= right.depth() + 1) {
+            Node joined = new Node(inner, right);
+            if (joined.depth() <= left.left.depth() + 1) {
+                return new Node(left.left, joined);
+            }
+            return rotateLeft(new Node(left.left, rotateRight(joined)));
+        }
+        Rope joined = joinRight((Node) inner, right);
+        Node node = new Node(left.left, joined);
+        return joined.depth() <= left.left.depth() + 1 ? node : rotateLeft(node);
+    }
+
+    private static Rope joinLeft(Rope left, Node right) {
+        Rope inner = right.left;
+        if (inner.depth() <= left.depth() + 1) {
+            Node joined = new Node(left, inner);
+            if (joined.depth() <= right.right.depth() + 1) {
+                return new Node(joined, right.right);
+            }
+            return rotateRight(new Node(rotateLeft(joined), right.right));
+        }
+        Rope joined = joinLeft(left, (Node) inner);
+        Node node = new Node(joined, right.right);
+        return joined.depth() <= right.right.depth() + 1 ? node : rotateRight(node);
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = (Node) node.right;
+        return new Node(new Node(node.left, right.left), right.right);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = (Node) node.left;
+        return new Node(left.left, new Node(left.right, node.right));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index > length()) {
+            throw new IndexOutOfBoundsException("Index " + index + " outside rope of length " + length());
+        }
+    }
+
+    private static final class Leaf extends Rope {
+        private final String text;
+
+        private Leaf(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        @Override
+        int depth() {
+            return 0;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            builder.append(text);
+        }
+
+        @Override
+        Rope[] split(int index) {
+            return new Rope[] { new Leaf(text.substring(0, index)), new Leaf(text.substring(index)) };
+        }
+    }
+
+    private static final class Node extends Rope {
+        private final Rope left;
+        private final Rope right;
+        private final int length;
+        private final int depth;
+
+        private Node(Rope left, Rope right) {
+            this.left = left;
+            this.right = right;
+            this.length = left.length() + right.length();
+            this.depth = Math.max(left.depth(), right.depth()) + 1;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return index < left.length() ? left.charAt(index) : right.charAt(index - left.length());
+        }
+
+        @Override
+        int depth() {
+            return depth;
+        }
+
+        @Override
+        void appendTo(StringBuilder builder) {
+            left.appendTo(builder);
+            right.appendTo(builder);
+        }
+
+        @Override
+        Rope[] split(int index) {
+            if (index == left.length()) {
+                return new Rope[] { left, right };
+            }
+            if (index < left.length()) {
+                Rope[] parts = left.split(index);
+                return new Rope[] { parts[0], concat(parts[1], right) };
+            }
+            Rope[] parts = right.split(index - left.length());
+            return new Rope[] { concat(left, parts[0]), parts[1] };
+        }
+    }
+}
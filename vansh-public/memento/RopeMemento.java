@@ -0,0 +1,18 @@
+public class RopeMemento extends Memento {
+    private final Rope rope;
+
+    public RopeMemento(Rope rope) {
+        super(null);
+        this.rope = rope;
+    }
+
+    public Rope getRope() {
+        return this.rope;
+    }
+
+    // flattened only when someone asks for the text
+    @Override
+    public String getState() {
+        return this.rope.toString();
+    }
+}
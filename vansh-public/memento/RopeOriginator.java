@@ -0,0 +1,39 @@
+// Originator for large documents, the state is an immutable rope so taking a memento just keeps a
+// reference and snapshots share every unchanged part of the document
+public class RopeOriginator {
+
+    private Rope state = Rope.EMPTY;
+
+    public void setState(String state) {
+        this.state = Rope.of(state);
+    }
+
+    public String getState() {
+        return this.state.toString();
+    }
+
+    public int length() {
+        return this.state.length();
+    }
+
+    public void insert(int index, String text) {
+        this.state = this.state.insert(index, text);
+    }
+
+    public void delete(int from, int to) {
+        this.state = this.state.delete(from, to);
+    }
+
+    public Memento saveStateToMemento() {
+        return new RopeMemento(this.state);
+    }
+
+    public void getStateFromMemento(Memento memento) {
+        if (memento instanceof RopeMemento ropeMemento) {
+            this.state = ropeMemento.getRope();
+        } else {
+            this.state = Rope.of(memento.getState());
+        }
+    }
+    
+}
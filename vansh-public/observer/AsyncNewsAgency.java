@@ -0,0 +1,104 @@
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AsyncNewsAgency implements AutoCloseable {
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private volatile String news;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor;
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+
+    public AsyncNewsAgency(int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(Executors.newCachedThreadPool(), queueCapacity, overflowPolicy);
+    }
+
+    public AsyncNewsAgency(ExecutorService executor, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    public void addObserver(Channel channel) {
+        this.subscribers.add(new Subscriber(channel));
+    }
+
+    public void removeObserver(Channel channel) {
+        this.subscribers.removeIf(subscriber -> subscriber.channel.equals(channel));
+    }
+
+    // only a full mailbox under the BLOCK policy can hold up the publisher, a slow channel never does otherwise
+    public void setNews(String news) throws InterruptedException {
+        this.news = news;
+        for (Subscriber subscriber : this.subscribers) {
+            subscriber.offer(news);
+        }
+    }
+
+    public String getNews() {
+        return news;
+    }
+
+    public long getDropped() {
+        long dropped = 0;
+        for (Subscriber subscriber : this.subscribers) {
+            dropped += subscriber.dropped.sum();
+        }
+        return dropped;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private final class Subscriber implements Runnable {
+        private final Channel channel;
+        private final BlockingQueue<Object> mailbox = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final LongAdder dropped = new LongAdder();
+
+        private Subscriber(Channel channel) {
+            this.channel = channel;
+        }
+
+        private void offer(Object update) throws InterruptedException {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                mailbox.put(update);
+            } else if (!mailbox.offer(update)) {
+                dropped.increment();
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        // at most one drain per subscriber runs at a time, which keeps updates in publish order
+        @Override
+        public void run() {
+            do {
+                Object update;
+                while ((update = mailbox.poll()) != null) {
+                    try {
+                        channel.update(update);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                scheduled.set(false);
+            } while (!mailbox.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 10_000;
+
+    public static void main(String[] args) {
+        for (int channels : new int[] { 10, 100, 1000 }) {
+            NewsAgency agency = new NewsAgency();
+            for (int i = 0; i < channels; i++) {
+                agency.addObserver(new NewsChannel());
+            }
+            measure("NewsAgency.setNews " + channels + " channels", OPERATIONS, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    agency.setNews("news");
+                }
+            });
+        }
+
+        for (int channels : new int[] { 1, 4 }) {
+            NewsAgency agency = new NewsAgency();
+            for (int i = 0; i < channels; i++) {
+                agency.addObserver(new NewsChannel());
+            }
+            measure("NewsAgency.setNews " + channels + " channels", OPERATIONS, () -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    agency.setNews("news");
+                }
+            });
+            try (RingBufferNewsAgency ringAgency = new RingBufferNewsAgency(1 << 16)) {
+                for (int i = 0; i < channels; i++) {
+                    ringAgency.addObserver(new NewsChannel());
+                }
+                measure("RingBufferNewsAgency.setNews " + channels + " channels", OPERATIONS, () -> {
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        ringAgency.setNews("news");
+                    }
+                });
+            }
+        }
+    }
+}
@@ -1,15 +1,40 @@
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class NewsAgency {
-    private String news;
+    private volatile String news;
 
-    private List<Channel> channels = new ArrayList<>();
+    private List<Channel> channels = new CopyOnWriteArrayList<>();
+
+    private final NewsLog log;
+
+    public NewsAgency() {
+        this(null);
+    }
+
+    // every news is appended to the log before it is published, so channels can replay it later
+    public NewsAgency(NewsLog log) {
+        this.log = log;
+    }
     
     public void addObserver(Channel channel) {
         this.channels.add(channel);
     }
+
+    // catches the channel up from the log, then switches it to live news without gaps or duplicates,
+    // the bulk of the replay runs unlocked and only the news published meanwhile is replayed under the lock
+    public void addObserver(Channel channel, long fromOffset) {
+        if (this.log == null) {
+            throw new IllegalStateException("NewsAgency has no news log to replay from");
+        }
+        long caughtUp = Math.max(fromOffset, this.log.nextOffset());
+        this.log.read(fromOffset, caughtUp, channel);
+        synchronized (this.log) {
+            this.log.read(caughtUp, this.log.nextOffset(), channel);
+            this.channels.add(channel);
+        }
+    }
     
 
     public void removeObserver(Channel channel) {
@@ -17,9 +42,20 @@ public class NewsAgency {
     }
 
     public void setNews(String news) {
+        if (this.log == null) {
+            publish(news);
+            return;
+        }
+        synchronized (this.log) {
+            this.log.append(news);
+            publish(news);
+        }
+    }
+
+    private void publish(String news) {
         this.news = news;
         for (Channel channel : this.channels) {
-            channel.update(this.news);
+            channel.update(news);
         }
     }
 
@@ -0,0 +1,182 @@
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+// append-only log of news split into memory-mapped segment files named after their first offset,
+// every record is an int header of length + 1 followed by the UTF-8 bytes, a zero header marks the unused tail
+public class NewsLog implements AutoCloseable {
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();
+
+    public NewsLog(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public NewsLog(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(SUFFIX)).sorted().toList()) {
+                String name = file.getFileName().toString();
+                segments.add(Segment.open(file, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())),
+                        segmentSize));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(newSegment(0));
+        }
+    }
+
+    public synchronized long append(String news) {
+        byte[] bytes = news.getBytes(StandardCharsets.UTF_8);
+        if (Integer.BYTES + bytes.length > segmentSize) {
+            throw new IllegalArgumentException("News of " + bytes.length + " bytes does not fit a log segment");
+        }
+        Segment segment = segments.get(segments.size() - 1);
+        if (segment.remaining() < Integer.BYTES + bytes.length) {
+            segment = newSegment(segment.baseOffset + segment.count);
+            segments.add(segment);
+        }
+        return segment.append(bytes);
+    }
+
+    public synchronized long nextOffset() {
+        Segment last = segments.get(segments.size() - 1);
+        return last.baseOffset + last.count;
+    }
+
+    // replays every record from the given offset on, in order
+    public void read(long fromOffset, Channel channel) {
+        read(fromOffset, Long.MAX_VALUE, channel);
+    }
+
+    // replays the records in [fromOffset, toOffset) that exist when the call starts, the log is only locked
+    // while the segments are snapshotted so appends carry on during a long replay
+    public void read(long fromOffset, long toOffset, Channel channel) {
+        List<Segment> snapshot = new ArrayList<>();
+        synchronized (this) {
+            for (Segment segment : segments) {
+                snapshot.add(segment.snapshot());
+            }
+        }
+        for (Segment segment : snapshot) {
+            long end = Math.min(toOffset, segment.baseOffset + segment.count);
+            for (long offset = Math.max(fromOffset, segment.baseOffset); offset < end; offset++) {
+                channel.update(segment.read((int) (offset - segment.baseOffset)));
+            }
+        }
+    }
+
+    public synchronized void flush() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flush();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    private Segment newSegment(long baseOffset) {
+        try {
+            return Segment.open(directory.resolve(String.format("%020d%s", baseOffset, SUFFIX)), baseOffset,
+                    segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Segment {
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int[] positions = new int[64];
+        private int count;
+
+        private Segment(long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path file, long baseOffset, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            Segment segment = new Segment(baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            segment.recover();
+            return segment;
+        }
+
+        // rebuilds the record index by walking the headers written before the last shutdown
+        private void recover() {
+            int position = 0;
+            while (position + Integer.BYTES <= buffer.capacity()) {
+                int header = buffer.getInt(position);
+                if (header <= 0 || position + Integer.BYTES + header - 1 > buffer.capacity()) {
+                    break;
+                }
+                index(position);
+                position += Integer.BYTES + header - 1;
+            }
+            buffer.position(position);
+        }
+
+        private int remaining() {
+            return buffer.remaining();
+        }
+
+        // the header goes in after the payload, so a record torn by a crash still reads as the unused tail
+        private long append(byte[] bytes) {
+            int position = buffer.position();
+            buffer.put(position + Integer.BYTES, bytes);
+            buffer.putInt(position, bytes.length + 1);
+            buffer.position(position + Integer.BYTES + bytes.length);
+            index(position);
+            return baseOffset + count - 1;
+        }
+
+        // records below count are never written again and reads only use absolute gets, so a copy of the
+        // index can be read while later records are appended
+        private Segment snapshot() {
+            Segment snapshot = new Segment(baseOffset, channel, buffer);
+            snapshot.positions = positions;
+            snapshot.count = count;
+            return snapshot;
+        }
+
+        private String read(int record) {
+            int position = positions[record];
+            byte[] bytes = new byte[buffer.getInt(position) - 1];
+            buffer.get(position + Integer.BYTES, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void index(int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// preallocated ring of news slots, publishers claim a sequence with one atomic increment and every
+// channel follows the ring at its own pace on its own thread
+public class RingBufferNewsAgency implements AutoCloseable {
+
+    private static final int SPIN_TRIES = 100;
+
+    private final Object[] entries;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+    private volatile long gatingCache = -1;
+
+    public RingBufferNewsAgency(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.entries = new Object[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    // the consumer gates publishers from a point none of them can have passed yet before its start is read,
+    // every publisher claiming after that read sees it, so no slot it still needs can be overwritten
+    public void addObserver(Channel channel) {
+        Consumer consumer = new Consumer(channel, gatingCache);
+        consumers.add(consumer);
+        consumer.sequence.set(claimed.get() - 1);
+        consumer.thread.start();
+    }
+
+    public void removeObserver(Channel channel) {
+        for (Consumer consumer : consumers) {
+            if (consumer.channel.equals(channel)) {
+                consumers.remove(consumer);
+                consumer.stop();
+            }
+        }
+    }
+
+    public void setNews(String news) {
+        long sequence = claimed.getAndIncrement();
+        long wrapPoint = sequence - entries.length;
+        int tries = 0;
+        while (wrapPoint > gatingCache) {
+            long slowest = slowestConsumer(sequence - 1);
+            gatingCache = slowest;
+            if (wrapPoint > slowest) {
+                tries = idle(tries);
+            }
+        }
+        int index = (int) sequence & mask;
+        // without consumers nothing gates a lap, so a stalled publisher could otherwise write its old
+        // sequence over a newer one, every slot is reused only once the previous lap has been published
+        tries = 0;
+        while (published.get(index) < wrapPoint) {
+            tries = idle(tries);
+        }
+        entries[index] = news;
+        published.set(index, sequence);
+    }
+
+    @Override
+    public void close() {
+        for (Consumer consumer : consumers) {
+            consumer.stop();
+        }
+        consumers.clear();
+    }
+
+    private long slowestConsumer(long fallback) {
+        long slowest = fallback;
+        for (Consumer consumer : consumers) {
+            slowest = Math.min(slowest, consumer.sequence.get());
+        }
+        return slowest;
+    }
+
+    private static int idle(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(1_000);
+        }
+        return tries + 1;
+    }
+
+    private final class Consumer implements Runnable {
+        private final Channel channel;
+        private final AtomicLong sequence;
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        private Consumer(Channel channel, long start) {
+            this.channel = channel;
+            this.sequence = new AtomicLong(start);
+            this.thread = new Thread(this, "news-consumer");
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            int tries = 0;
+            while (running) {
+                long available = next;
+                while (published.get((int) available & mask) == available) {
+                    try {
+                        channel.update(entries[(int) available & mask]);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                    available++;
+                }
+                if (available == next) {
+                    tries = idle(tries);
+                    continue;
+                }
+                tries = 0;
+                next = available;
+                sequence.lazySet(next - 1);
+            }
+        }
+
+        private void stop() {
+            running = false;
+            // a stopped consumer must never gate publishers again
+            sequence.set(Long.MAX_VALUE);
+            LockSupport.unpark(thread);
+        }
+    }
+}
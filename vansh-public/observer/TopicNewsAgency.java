@@ -0,0 +1,125 @@
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TopicNewsAgency implements AutoCloseable {
+
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<String, String> news = new ConcurrentHashMap<>();
+    private final Map<Channel, Delivery> deliveries = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    // delivers every update synchronously on the publishing thread
+    public TopicNewsAgency() {
+        this(null);
+    }
+
+    // coalescing mode, a channel that falls behind on a topic only receives the newest update for it,
+    // a channel on several topics is still updated from one drain at a time, never concurrently
+    public TopicNewsAgency(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public void addObserver(String topic, Channel channel) {
+        Delivery delivery = this.executor == null ? null : this.deliveries.computeIfAbsent(channel, Delivery::new);
+        this.subscriptions.computeIfAbsent(topic, key -> new CopyOnWriteArrayList<>())
+                .add(new Subscription(channel, delivery));
+    }
+
+    public void removeObserver(String topic, Channel channel) {
+        List<Subscription> topicSubscriptions = this.subscriptions.get(topic);
+        if (topicSubscriptions != null) {
+            topicSubscriptions.removeIf(subscription -> subscription.channel.equals(channel));
+        }
+    }
+
+    public void setNews(String topic, String news) {
+        this.news.put(topic, news);
+        List<Subscription> topicSubscriptions = this.subscriptions.get(topic);
+        if (topicSubscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : topicSubscriptions) {
+            subscription.offer(news);
+        }
+    }
+
+    public String getNews(String topic) {
+        return this.news.get(topic);
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    // one pending slot per topic and channel, the newest update overwrites one not yet delivered
+    private static final class Subscription {
+        private final Channel channel;
+        private final Delivery delivery;
+        private final AtomicReference<Object> pending = new AtomicReference<>();
+        private final AtomicBoolean queued = new AtomicBoolean();
+
+        private Subscription(Channel channel, Delivery delivery) {
+            this.channel = channel;
+            this.delivery = delivery;
+        }
+
+        private void offer(Object update) {
+            if (delivery == null) {
+                channel.update(update);
+                return;
+            }
+            pending.set(update);
+            if (queued.compareAndSet(false, true)) {
+                delivery.enqueue(this);
+            }
+        }
+    }
+
+    // a single drain per channel over the slots of all its topics keeps the channel single threaded
+    private final class Delivery implements Runnable {
+        private final Channel channel;
+        private final Queue<Subscription> ready = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Delivery(Channel channel) {
+            this.channel = channel;
+        }
+
+        private void enqueue(Subscription subscription) {
+            ready.add(subscription);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                Subscription subscription;
+                while ((subscription = ready.poll()) != null) {
+                    subscription.queued.set(false);
+                    Object update = subscription.pending.getAndSet(null);
+                    if (update != null) {
+                        try {
+                            channel.update(update);
+                        } catch (RuntimeException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+                scheduled.set(false);
+            } while (!ready.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
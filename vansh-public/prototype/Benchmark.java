@@ -0,0 +1,23 @@
+
+import static benchmark.Harness.consume;
+import static benchmark.Harness.measure;
+
+public class Benchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+
+    public static void main(String[] args) {
+        VehicleRegistry registry = new VehicleRegistry();
+        String[] types = { "TwoWheeler", "FourWheeler" };
+
+        measure("VehicleRegistry.getVehicle", OPERATIONS, () -> {
+            try {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    consume(registry.getVehicle(types[i & 1]).hashCode());
+                }
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}